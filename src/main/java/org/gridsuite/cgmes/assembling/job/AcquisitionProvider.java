@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import com.powsybl.cgmes.model.FullModel;
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access to the directory where the individual profiles files are acquired: a remote server, or a local file system.
+ *
+ * @author agent <agent at local>
+ */
+public interface AcquisitionProvider extends AutoCloseable {
+
+    // sorting files by modification time in reverse order (most recent files first), then by name
+    Comparator<FileInfo> MOST_RECENT_FIRST = Comparator.comparingLong(FileInfo::getLastModifiedTime).reversed()
+            .thenComparing(FileInfo::getName);
+
+    void open() throws IOException;
+
+    default Map<String, String> listFiles(String acquisitionDirPath) throws IOException {
+        return listFiles(acquisitionDirPath, null);
+    }
+
+    /**
+     * List the files of a directory, or only the files newer than a watermark if one is given
+     */
+    default Map<String, String> listFiles(String acquisitionDirPath, ListingWatermark watermark) throws IOException {
+        Map<String, String> childrenUrls = new LinkedHashMap<>();
+        for (FileInfo child : listFilesInfo(acquisitionDirPath, watermark)) {
+            childrenUrls.put(child.getName(), child.getUrl());
+        }
+        return childrenUrls;
+    }
+
+    default List<FileInfo> listFilesInfo(String acquisitionDirPath) throws IOException {
+        return listFilesInfo(acquisitionDirPath, null);
+    }
+
+    /**
+     * List the attributes of the files of a directory, most recent files first, or only the files newer than a
+     * watermark if one is given
+     */
+    List<FileInfo> listFilesInfo(String acquisitionDirPath, ListingWatermark watermark) throws IOException;
+
+    /**
+     * Get the attributes of a file, as returned by the last listing of its directory, or null if it was not listed
+     */
+    FileInfo getListedFileInfo(String fileUrl);
+
+    /**
+     * Get the url of a file of a directory, without listing the directory
+     */
+    String getFileUrl(String acquisitionDirPath, String fileName) throws IOException;
+
+    TransferableFile getFile(String fileName, String fileUrl) throws IOException;
+
+    /**
+     * Read the FullModel header of a zipped profile, without reading the whole file
+     */
+    FullModel getFullModel(String fileUrl) throws IOException;
+
+    /**
+     * Wait for changes in a directory, up to a timeout, and return true if there are some. Without change notifications,
+     * the timeout is always waited and false is returned.
+     */
+    default boolean awaitChanges(String acquisitionDirPath, long timeout) throws IOException, InterruptedException {
+        Thread.sleep(timeout);
+        return false;
+    }
+
+    @Override
+    void close() throws IOException;
+}
@@ -6,37 +6,78 @@
  */
 package org.gridsuite.cgmes.assembling.job;
 
+import com.powsybl.cgmes.model.FullModel;
+import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.auth.StaticUserAuthenticator;
 import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
 import org.apache.commons.vfs2.impl.StandardFileSystemManager;
 import org.apache.commons.vfs2.provider.ftp.FtpFileSystemConfigBuilder;
 import org.apache.commons.vfs2.provider.sftp.SftpFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * @author Chamseddine Benhamed <chamseddine.benhamed at rte-france.com>
  * @author Nicolas Noir <nicolas.noir at rte-france.com>
  */
-public class AcquisitionServer implements AutoCloseable {
+public class AcquisitionServer implements AcquisitionProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AcquisitionServer.class);
 
-    private final StandardFileSystemManager fsManager = new StandardFileSystemManager();
+    public static final long DEFAULT_MEMORY_THRESHOLD = 16L * 1024 * 1024;
+
+    private static final int HEADER_PROBE_BUFFER_SIZE = 16 * 1024;
+
+    // each file system manager holds its own authenticated session to the server
+    private final List<StandardFileSystemManager> fsManagers = new ArrayList<>();
+    private final BlockingQueue<StandardFileSystemManager> availableFsManagers = new LinkedBlockingQueue<>();
     private FileSystemOptions fsOptions = new FileSystemOptions();
 
     private String serverUrl;
 
+    private final int sessionsCount;
+
+    private final FileContentCache cache;
+
+    // downloaded files bigger than this threshold are spilled to a temporary file when they are not cached
+    private final long memoryThreshold;
+
+    // last listed attributes of each file, by url
+    private final Map<String, FileInfo> listedFiles = new ConcurrentHashMap<>();
+
     public AcquisitionServer(String url, String userName, String password) throws FileSystemException {
+        this(url, userName, password, null);
+    }
+
+    public AcquisitionServer(String url, String userName, String password, FileContentCache cache) throws FileSystemException {
+        this(url, userName, password, 1, cache, DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    public AcquisitionServer(String url, String userName, String password, int sessionsCount,
+                             FileContentCache cache, long memoryThreshold) throws FileSystemException {
+        if (sessionsCount < 1) {
+            throw new IllegalArgumentException("Invalid acquisition server sessions count: " + sessionsCount);
+        }
         serverUrl = url;
+        this.sessionsCount = sessionsCount;
+        this.cache = cache;
+        this.memoryThreshold = memoryThreshold;
 
         StaticUserAuthenticator auth = new StaticUserAuthenticator(null, userName, password);
         DefaultFileSystemConfigBuilder.getInstance().setUserAuthenticator(fsOptions, auth);
@@ -50,59 +91,152 @@ public class AcquisitionServer implements AutoCloseable {
         FtpFileSystemConfigBuilder.getInstance().setPassiveMode(fsOptions, true);
     }
 
+    @Override
     public void open() throws FileSystemException {
-        fsManager.init();
+        for (int i = 0; i < sessionsCount; i++) {
+            StandardFileSystemManager fsManager = new StandardFileSystemManager();
+            fsManager.init();
+            fsManagers.add(fsManager);
+            availableFsManagers.add(fsManager);
+        }
+    }
+
+    private StandardFileSystemManager acquireFsManager() throws InterruptedIOException {
+        try {
+            return availableFsManagers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an acquisition server session");
+        }
+    }
+
+    private void releaseFsManager(StandardFileSystemManager fsManager) {
+        availableFsManagers.add(fsManager);
+    }
+
+    @Override
+    public List<FileInfo> listFilesInfo(String acquisitionDirPath, ListingWatermark watermark) throws IOException {
+        StandardFileSystemManager fsManager = acquireFsManager();
+        try {
+            FileObject serverRoot = fsManager.resolveFile(serverUrl, fsOptions);
+            FileObject acquisitionDirectory = serverRoot.resolveFile(acquisitionDirPath);
+            // resolved files are cached by the file system manager, which is kept from one listing to the next
+            acquisitionDirectory.refresh();
+            return listFilesInfo(acquisitionDirectory, watermark);
+        } finally {
+            releaseFsManager(fsManager);
+        }
+    }
+
+    List<FileInfo> listFilesInfo(FileObject acquisitionDirectory, ListingWatermark watermark) throws FileSystemException {
+        // the children attributes come with the directory listing itself (a single ls/readdir), so we take one
+        // snapshot per child and sort it in memory instead of querying the server on each comparison
+        List<FileInfo> childrenFiles = new ArrayList<>();
+        for (FileObject child : acquisitionDirectory.getChildren()) {
+            FileInfo childInfo = getFileInfo(child);
+            if (childInfo != null && (watermark == null || watermark.isNew(childInfo))) {
+                childrenFiles.add(childInfo);
+                listedFiles.put(childInfo.getUrl(), childInfo);
+            }
+        }
+        childrenFiles.sort(MOST_RECENT_FIRST);
+        return childrenFiles;
+    }
+
+    @Override
+    public String getFileUrl(String acquisitionDirPath, String fileName) throws IOException {
+        StandardFileSystemManager fsManager = acquireFsManager();
+        try {
+            return fsManager.resolveFile(serverUrl, fsOptions).resolveFile(acquisitionDirPath).resolveFile(fileName).getURL().toString();
+        } finally {
+            releaseFsManager(fsManager);
+        }
+    }
+
+    @Override
+    public FileInfo getListedFileInfo(String fileUrl) {
+        return listedFiles.get(fileUrl);
     }
 
-    class FileObjectComparator implements Comparator<FileObject> {
-        @Override
-        public int compare(FileObject fo1, FileObject fo2) {
-            if (fo1 == fo2) {
-                return 0;
-            } else {
-                try (final FileContent fo1Content = fo1.getContent();
-                     final FileContent fo2Content = fo2.getContent()) {
-                    return Long.compare(fo1Content.getLastModifiedTime(), fo2Content.getLastModifiedTime());
+    private static FileInfo getFileInfo(FileObject file) {
+        try {
+            if (!file.isFile()) {
+                return null;
+            }
+            String name = file.getName().getBaseName();
+            String url = file.getURL().toString();
+            try (FileContent content = file.getContent()) {
+                long size = content.getSize();
+                long lastModifiedTime;
+                try {
+                    lastModifiedTime = content.getLastModifiedTime();
                 } catch (FileSystemException e) {
-                    // if error when getting content, order by name
-                    return fo1.compareTo(fo2);
+                    // if modification time is not available, the file is listed last
+                    lastModifiedTime = 0;
                 }
+                return new FileInfo(name, url, size, lastModifiedTime);
             }
+        } catch (FileSystemException e) {
+            LOGGER.warn(e.getMessage());
+            return null;
         }
     }
 
-    public Map<String, String> listFiles(String acquisitionDirPath) throws IOException {
-        FileObject serverRoot = fsManager.resolveFile(serverUrl, fsOptions);
-        FileObject acquisitionDirectory = serverRoot.resolveFile(acquisitionDirPath);
-        // sorting files by modification time in reverse order (most recent files first)
-        List<FileObject> childrenFiles = Arrays.stream(acquisitionDirectory.getChildren()).filter(f -> {
-            try {
-                return f.isFile();
-            } catch (FileSystemException e) {
-                return false;
-            }
-        }).sorted(new FileObjectComparator().reversed()).collect(Collectors.toList());
-
-        Map<String, String> childrenUrls = new LinkedHashMap<>();
-        for (FileObject child : childrenFiles) {
-            try {
-                String childName = child.getName().getBaseName();
-                String childUrl = child.getURL().toString();
-                childrenUrls.put(childName, childUrl);
-            } catch (FileSystemException e) {
-                LOGGER.warn(e.getMessage());
+    @Override
+    public TransferableFile getFile(String fileName, String fileUrl) throws IOException {
+        // only listed files can be cached, as the cache key needs the file size and modification time
+        FileInfo fileInfo = cache != null ? listedFiles.get(fileUrl) : null;
+        if (fileInfo != null) {
+            TransferableFile cachedFile = cache.get(fileName, fileInfo);
+            if (cachedFile != null) {
+                return cachedFile;
             }
         }
 
-        return childrenUrls;
+        StandardFileSystemManager fsManager = acquireFsManager();
+        try {
+            FileObject file = fsManager.resolveFile(fileUrl, fsOptions);
+            try (FileContent content = file.getContent();
+                 InputStream is = content.getInputStream()) {
+                return fileInfo != null ? cache.put(fileName, fileInfo, is) : TransferableFile.read(fileName, is, memoryThreshold);
+            }
+        } finally {
+            releaseFsManager(fsManager);
+        }
     }
 
-    public TransferableFile getFile(String fileName, String fileUrl) throws IOException {
-        FileObject file = fsManager.resolveFile(fileUrl, fsOptions);
-        return new TransferableFile(fileName, file.getContent().getByteArray());
+    /**
+     * Read the FullModel header of a zipped profile without downloading the whole file: only the zip local file header
+     * and the compressed data needed to parse the header are read, then the transfer is aborted.
+     * A random access (offset) read is used when the server supports it (SFTP, FTP with REST), a plain stream otherwise.
+     */
+    @Override
+    public FullModel getFullModel(String fileUrl) throws IOException {
+        StandardFileSystemManager fsManager = acquireFsManager();
+        try {
+            FileObject file = fsManager.resolveFile(fileUrl, fsOptions);
+            FullModel fullModel = null;
+            try (FileContent content = file.getContent();
+                 RandomAccessContent randomAccessContent = file.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)
+                     ? content.getRandomAccessContent(RandomAccessMode.READ) : null;
+                 InputStream is = new BufferedInputStream(randomAccessContent != null ? randomAccessContent.getInputStream() : content.getInputStream(),
+                                                          HEADER_PROBE_BUFFER_SIZE)) {
+                fullModel = CgmesUtils.parseFullModel(is);
+            } catch (IOException e) {
+                if (fullModel == null) {
+                    throw e;
+                }
+                // aborting the transfer before the end of the file can be reported as an error by the server
+                LOGGER.debug("Transfer of {} aborted after header read: {}", fileUrl, e.getMessage());
+            }
+            return fullModel;
+        } finally {
+            releaseFsManager(fsManager);
+        }
     }
 
+    @Override
     public void close() throws IOException {
-        fsManager.close();
+        fsManagers.forEach(StandardFileSystemManager::close);
     }
 }
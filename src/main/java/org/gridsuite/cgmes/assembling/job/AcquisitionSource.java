@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An acquisition directory handled by the job, with its origin label and its own files handling workers.
+ * Several sources are handled concurrently, sharing the logger, the boundaries and the case imports.
+ * The handled and imported files, the dependency graph, the pending assemblies and the listing watermark of the source
+ * are loaded from the logger on its first pass, then kept and updated in place, so that a daemon pass only costs the new arrivals.
+ *
+ * @author agent <agent at local>
+ */
+public class AcquisitionSource implements AutoCloseable {
+
+    private final String label;
+
+    private final String casesDirectory;
+
+    private final AcquisitionProvider provider;
+
+    private final ExecutorService handlingExecutor;
+
+    private FileNameSet handledFiles;
+
+    private FileNameSet importedFiles;
+
+    private DependencyGraphIndex dependencyGraph;
+
+    private PendingAssemblyIndex pendingAssemblies;
+
+    private ListingWatermark listingWatermark;
+
+    // logger rollbacks count when the state was loaded
+    private long loadedRollbackCount;
+
+    public AcquisitionSource(String label, String casesDirectory, AcquisitionProvider provider, int parallelism) {
+        this.label = label;
+        this.casesDirectory = casesDirectory;
+        this.provider = provider;
+        this.handlingExecutor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    public void open() throws IOException {
+        provider.open();
+    }
+
+    /**
+     * Load the files state of the source from the logger, unless it is already loaded and no logger flush has failed
+     * since: a failed flush rolls back the rows pending for all the sources, which may include rows of this source
+     * already added to its state
+     */
+    public void loadState(CgmesAssemblingLogger logger) {
+        long rollbackCount = logger.getRollbackCount();
+        if (handledFiles == null || rollbackCount != loadedRollbackCount) {
+            loadedRollbackCount = rollbackCount;
+            handledFiles = logger.getHandledFileNames(label);
+            importedFiles = logger.getImportedFileNames(label);
+            dependencyGraph = logger.getDependencyGraph(label);
+            pendingAssemblies = logger.getPendingAssemblies(label);
+            listingWatermark = logger.getListingWatermark(label);
+        }
+    }
+
+    /**
+     * Discard the files state, so that it is loaded again on next pass. A failed pass may have left it out of sync
+     * with the logger.
+     */
+    public void resetState() {
+        handledFiles = null;
+        importedFiles = null;
+        dependencyGraph = null;
+        pendingAssemblies = null;
+        listingWatermark = null;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getCasesDirectory() {
+        return casesDirectory;
+    }
+
+    public AcquisitionProvider getProvider() {
+        return provider;
+    }
+
+    public ExecutorService getHandlingExecutor() {
+        return handlingExecutor;
+    }
+
+    public FileNameSet getHandledFiles() {
+        return handledFiles;
+    }
+
+    public FileNameSet getImportedFiles() {
+        return importedFiles;
+    }
+
+    public DependencyGraphIndex getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    public PendingAssemblyIndex getPendingAssemblies() {
+        return pendingAssemblies;
+    }
+
+    public ListingWatermark getListingWatermark() {
+        return listingWatermark;
+    }
+
+    @Override
+    public void close() throws IOException {
+        handlingExecutor.shutdownNow();
+        provider.close();
+    }
+}
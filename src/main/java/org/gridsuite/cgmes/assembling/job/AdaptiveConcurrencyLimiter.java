@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Concurrency limit adjusted with an AIMD (additive increase, multiplicative decrease) policy: the limit grows by one
+ * per limit successful samples while it is reached, and is halved on each overload sample (error or latency above
+ * a threshold). The limit stays between a min and a max value.
+ *
+ * @author agent <agent at local>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double DECREASE_RATIO = 0.5;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    // in milliseconds
+    private final long latencyThreshold;
+
+    private double limit;
+
+    private int inFlight;
+
+    private int queueDepth;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, long latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold;
+        this.limit = minLimit;
+    }
+
+    /**
+     * Wait until the number of acquired permits is under the current limit, and acquire one
+     */
+    public synchronized void acquire() throws InterruptedException {
+        queueDepth++;
+        try {
+            while (inFlight >= getLimit()) {
+                wait();
+            }
+        } finally {
+            queueDepth--;
+        }
+        inFlight++;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Adjust the limit from the outcome of one limited operation
+     */
+    public synchronized void onSample(long latency, boolean error) {
+        int previousLimit = getLimit();
+        if (error || latency > latencyThreshold) {
+            limit = Math.max(minLimit, limit * DECREASE_RATIO);
+        } else if (inFlight >= previousLimit) {
+            // only grow when the limit is what bounds the throughput
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        if (getLimit() != previousLimit) {
+            LOGGER.info("Concurrency limit changed from {} to {} ({} in flight, {} waiting)", previousLimit, getLimit(), inFlight, queueDepth);
+            notifyAll();
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+}
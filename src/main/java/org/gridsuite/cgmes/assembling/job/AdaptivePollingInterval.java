@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+/**
+ * Polling interval of the daemon mode: it falls back to its minimum as soon as files are arriving, and is doubled
+ * after each idle pass up to its maximum.
+ *
+ * @author agent <agent at local>
+ */
+public class AdaptivePollingInterval {
+
+    public static final long DEFAULT_MIN_INTERVAL = 1000;
+
+    public static final long DEFAULT_MAX_INTERVAL = 60000;
+
+    private final long minInterval;
+
+    private final long maxInterval;
+
+    private long interval;
+
+    public AdaptivePollingInterval(long minInterval, long maxInterval) {
+        if (minInterval <= 0 || maxInterval < minInterval) {
+            throw new IllegalArgumentException("Invalid polling interval bounds: " + minInterval + ", " + maxInterval);
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.interval = minInterval;
+    }
+
+    /**
+     * Update the interval after a pass which has handled the given number of new files
+     */
+    public void update(int arrivalsCount) {
+        interval = arrivalsCount > 0 ? minInterval : Math.min(maxInterval, interval * 2);
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs assembly tasks in parallel within a global memory budget. Each task reserves its estimated size in bytes
+ * before it starts, and gives it back once the future it returns completes, so that the sum of the estimated sizes of
+ * running tasks never exceeds the budget. A task estimated beyond the whole budget reserves the whole budget, and so
+ * runs alone.
+ *
+ * @author agent <agent at local>
+ */
+public class AssemblyScheduler implements AutoCloseable {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    // budget is counted in KB, so that large budgets fit in a semaphore
+    private static final int PERMIT_SIZE = 1024;
+
+    /**
+     * Assembly task, returning a future which completes when the task resources are released
+     */
+    @FunctionalInterface
+    public interface AssemblyTask {
+
+        CompletableFuture<?> run() throws Exception;
+    }
+
+    private final ExecutorService executor;
+
+    private final Semaphore budget;
+
+    private final int maxPermits;
+
+    private final AtomicLong reserved = new AtomicLong();
+
+    private final AtomicLong peakReserved = new AtomicLong();
+
+    public AssemblyScheduler(int parallelism, long memoryBudget) {
+        if (parallelism < 1 || memoryBudget < PERMIT_SIZE) {
+            throw new IllegalArgumentException("Invalid assembly parallelism " + parallelism + " or memory budget " + memoryBudget);
+        }
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.maxPermits = (int) Math.min(Integer.MAX_VALUE, memoryBudget / PERMIT_SIZE);
+        this.budget = new Semaphore(maxPermits);
+    }
+
+    /**
+     * Wait until the estimated size of a task fits in the budget, and start it
+     */
+    public CompletableFuture<Void> submit(long estimatedSize, AssemblyTask task) throws InterruptedException {
+        int permits = (int) Math.max(1, Math.min(maxPermits, (estimatedSize + PERMIT_SIZE - 1) / PERMIT_SIZE));
+        budget.acquire(permits);
+        long reservedSize = reserved.addAndGet((long) permits * PERMIT_SIZE);
+        peakReserved.accumulateAndGet(reservedSize, Math::max);
+
+        // budget is given back before the result completes, so that it is available to the result waiters
+        Runnable release = () -> {
+            reserved.addAndGet(-(long) permits * PERMIT_SIZE);
+            budget.release(permits);
+        };
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run().whenComplete((r, e) -> {
+                        release.run();
+                        if (e != null) {
+                            result.completeExceptionally(e);
+                        } else {
+                            result.complete(null);
+                        }
+                    });
+                } catch (Exception e) {
+                    release.run();
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            release.run();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public long getReservedSize() {
+        return reserved.get();
+    }
+
+    public long getPeakReservedSize() {
+        return peakReserved.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import org.gridsuite.cgmes.assembling.job.dto.BoundaryInfo;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Local store of boundaries downloaded from the cgmes boundary server, which survives job runs.
+ * Boundary contents are stored once per SHA-256 checksum, and an index file maps each boundary id to its file name and
+ * checksum, in access order. The checksum is verified on each read, a corrupted entry being dropped. When the store
+ * exceeds its maximum size, least recently used boundaries are evicted, across job runs. Boundaries being read from the
+ * store only on requester cache misses, saving the index on each read is cheap.
+ *
+ * @author agent <agent at local>
+ */
+public class BoundaryStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundaryStore.class);
+
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final String INDEX_FILE_NAME = "index.json";
+    private static final String ID_KEY = "id";
+    private static final String FILE_NAME_KEY = "filename";
+    private static final String CHECKSUM_KEY = "checksum";
+    private static final String SIZE_KEY = "size";
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    // access ordered, so that the first entry is the least recently used one
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final class Entry {
+
+        private final String fileName;
+
+        private final String checksum;
+
+        private final long size;
+
+        private Entry(String fileName, String checksum, long size) {
+            this.fileName = fileName;
+            this.checksum = checksum;
+            this.size = size;
+        }
+    }
+
+    public BoundaryStore(Path directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    private void loadIndex() {
+        Path indexPath = directory.resolve(INDEX_FILE_NAME);
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        try {
+            // index is saved in access order
+            JSONArray array = new JSONArray(Files.readString(indexPath, StandardCharsets.UTF_8));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject obj = array.getJSONObject(i);
+                Entry entry = new Entry(obj.getString(FILE_NAME_KEY), obj.getString(CHECKSUM_KEY), obj.getLong(SIZE_KEY));
+                if (Files.exists(getContentPath(entry.checksum))) {
+                    entries.put(obj.getString(ID_KEY), entry);
+                }
+            }
+        } catch (IOException | JSONException e) {
+            // the store is only a cache, boundaries will be downloaded again
+            LOGGER.warn("Boundary store index {} cannot be read, store is reset", indexPath, e);
+            entries.clear();
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        JSONArray array = new JSONArray();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            JSONObject obj = new JSONObject();
+            obj.put(ID_KEY, entry.getKey());
+            obj.put(FILE_NAME_KEY, entry.getValue().fileName);
+            obj.put(CHECKSUM_KEY, entry.getValue().checksum);
+            obj.put(SIZE_KEY, entry.getValue().size);
+            array.put(obj);
+        }
+        Path tmpIndexPath = Files.createTempFile(directory, INDEX_FILE_NAME, null);
+        Files.writeString(tmpIndexPath, array.toString(), StandardCharsets.UTF_8);
+        Files.move(tmpIndexPath, directory.resolve(INDEX_FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getContentPath(String checksum) {
+        return directory.resolve(checksum);
+    }
+
+    private static String checksum(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get a stored boundary, or null if it is not stored or if its content is corrupted
+     */
+    public synchronized BoundaryInfo get(String boundaryId) {
+        Entry entry = entries.get(boundaryId);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(getContentPath(entry.checksum));
+            if (checksum(content).equals(entry.checksum)) {
+                // the access order is saved too, so that least recently used boundaries are evicted first on next runs
+                saveIndex();
+                return new BoundaryInfo(boundaryId, entry.fileName, content);
+            }
+            LOGGER.warn("Stored boundary {} is corrupted", boundaryId);
+        } catch (IOException e) {
+            LOGGER.warn("Stored boundary {} cannot be read", boundaryId, e);
+        }
+        remove(boundaryId);
+        return null;
+    }
+
+    /**
+     * Store a boundary, evicting least recently used boundaries if needed
+     */
+    public synchronized void put(String boundaryId, BoundaryInfo boundary) {
+        byte[] content = boundary.getBoundary();
+        if (content.length > maxSize) {
+            return;
+        }
+        String checksum = checksum(content);
+        try {
+            Path contentPath = getContentPath(checksum);
+            if (!Files.exists(contentPath)) {
+                Path tmpContentPath = Files.createTempFile(directory, checksum, null);
+                Files.write(tmpContentPath, content);
+                Files.move(tmpContentPath, contentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            entries.put(boundaryId, new Entry(boundary.getFilename(), checksum, content.length));
+            evict();
+            saveIndex();
+        } catch (IOException e) {
+            LOGGER.warn("Boundary {} cannot be stored", boundaryId, e);
+        }
+    }
+
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (getSize() > maxSize && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            deleteContentIfUnused(eldest.checksum);
+        }
+    }
+
+    private void remove(String boundaryId) {
+        Entry entry = entries.remove(boundaryId);
+        try {
+            if (entry != null) {
+                deleteContentIfUnused(entry.checksum);
+            }
+            saveIndex();
+        } catch (IOException e) {
+            LOGGER.warn("Boundary {} cannot be removed from store", boundaryId, e);
+        }
+    }
+
+    private void deleteContentIfUnused(String checksum) throws IOException {
+        for (Entry entry : entries.values()) {
+            if (entry.checksum.equals(checksum)) {
+                return;
+            }
+        }
+        Files.deleteIfExists(getContentPath(checksum));
+    }
+
+    /**
+     * Size of the stored contents, each distinct content being counted once
+     */
+    public synchronized long getSize() {
+        Map<String, Long> sizes = new HashMap<>();
+        for (Entry entry : entries.values()) {
+            sizes.put(entry.checksum, entry.size);
+        }
+        return sizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public synchronized boolean contains(String boundaryId) {
+        return entries.containsKey(boundaryId);
+    }
+}
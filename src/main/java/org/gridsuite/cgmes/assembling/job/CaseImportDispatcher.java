@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous case imports, with a number of imports in flight bounded by an adaptive limiter, fed with the latency and
+ * outcome of each attempt. An import failing with a case server error (5xx) or a timeout is retried with an exponential
+ * backoff.
+ *
+ * @author agent <agent at local>
+ */
+public class CaseImportDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaseImportDispatcher.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_BACKOFF = 1000;
+    public static final long DEFAULT_LATENCY_THRESHOLD = 60000;
+
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final CaseImportServiceRequester caseImportServiceRequester;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final int maxRetries;
+
+    // in milliseconds, doubled on each retry
+    private final long retryBackoff;
+
+    private final AtomicLong attempts = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    public CaseImportDispatcher(CaseImportServiceRequester caseImportServiceRequester, int maxInFlight, int maxRetries, long retryBackoff) {
+        this(caseImportServiceRequester, new AdaptiveConcurrencyLimiter(maxInFlight, maxInFlight, Long.MAX_VALUE), maxRetries, retryBackoff);
+    }
+
+    public CaseImportDispatcher(CaseImportServiceRequester caseImportServiceRequester, AdaptiveConcurrencyLimiter limiter, int maxRetries, long retryBackoff) {
+        this.caseImportServiceRequester = caseImportServiceRequester;
+        this.limiter = limiter;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Start the import of a case, waiting first for an import slot if the limit of imports in flight is reached.
+     * The returned future completes with true once the case is imported, or false once the import has failed.
+     */
+    public CompletableFuture<Boolean> importCase(TransferableFile caseFile) throws InterruptedException {
+        limiter.acquire();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        result.whenComplete((importOk, e) -> limiter.release());
+        attempt(caseFile, 1, result);
+        return result;
+    }
+
+    private void attempt(TransferableFile caseFile, int attempt, CompletableFuture<Boolean> result) {
+        attempts.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = caseImportServiceRequester.importCaseAsync(caseFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Case {} import request cannot be built", caseFile.getName(), e);
+            result.complete(false);
+            return;
+        }
+
+        response.whenComplete((r, e) -> {
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            boolean imported = false;
+            boolean retryable;
+            if (e == null) {
+                LOGGER.info("Case {} import attempt {}: case server response status {} in {} ms", caseFile.getName(), attempt, r.statusCode(), duration);
+                imported = r.statusCode() == 200;
+                retryable = r.statusCode() >= 500;
+            } else {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                LOGGER.warn("Case {} import attempt {}: {} after {} ms", caseFile.getName(), attempt, cause.toString(), duration);
+                retryable = cause instanceof HttpTimeoutException;
+            }
+
+            // every response is a sample, while the import slot is still held : retryable failures are the case server
+            // overload signals, and fast successes let the limit grow
+            limiter.onSample(duration, retryable);
+            if (imported) {
+                result.complete(true);
+            } else if (retryable && attempt <= maxRetries) {
+                retries.incrementAndGet();
+                long backoff = retryBackoff << Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS).execute(() -> attempt(caseFile, attempt + 1, result));
+            } else {
+                result.complete(false);
+            }
+        });
+    }
+
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
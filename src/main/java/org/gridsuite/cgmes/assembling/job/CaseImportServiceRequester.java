@@ -20,6 +20,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Nicolas Noir <nicolas.noir at rte-france.com>
@@ -40,28 +41,38 @@ public class CaseImportServiceRequester {
     }
 
     public boolean importCase(TransferableFile caseFile) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(buildImportRequest(caseFile), HttpResponse.BodyHandlers.ofString());
+        LOGGER.info("Case server response status: {}", response.statusCode());
+        return response.statusCode() == 200;
+    }
+
+    /**
+     * Send an import request without waiting for its response. The response future fails with a
+     * {@link java.net.http.HttpTimeoutException} when the case server does not answer in time.
+     */
+    public CompletableFuture<HttpResponse<String>> importCaseAsync(TransferableFile caseFile) throws IOException {
+        return httpClient.sendAsync(buildImportRequest(caseFile), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest buildImportRequest(TransferableFile caseFile) throws IOException {
         Map<Object, Object> data = new LinkedHashMap<>();
         data.put("file", caseFile);
 
         // Random 256 length string is used as multipart boundary
         String boundary = new BigInteger(256, new Random()).toString();
 
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(serviceUrl + API_VERSION + "/cases/public"))
                 .timeout(Duration.ofMinutes(2))
                 .header("Content-Type", "multipart/form-data;boundary=" + boundary)
                 .POST(ofMimeMultipartData(data, boundary))
                 .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        LOGGER.info("Case server response status: {}", response.statusCode());
-        return response.statusCode() == 200;
     }
 
     private HttpRequest.BodyPublisher ofMimeMultipartData(Map<Object, Object> data,
                                                          String boundary) throws IOException {
-        // Result request body
-        List<byte[]> byteArrays = new ArrayList<>();
+        // Result request body, file contents being streamed between the multipart framing parts
+        List<HttpRequest.BodyPublisher> publishers = new ArrayList<>();
 
         // Separator with boundary
         byte[] separator = ("--" + boundary + "\r\nContent-Disposition: form-data; name=").getBytes(StandardCharsets.UTF_8);
@@ -70,34 +81,36 @@ public class CaseImportServiceRequester {
         for (Map.Entry<Object, Object> entry : data.entrySet()) {
 
             // Opening boundary
-            byteArrays.add(separator);
+            publishers.add(HttpRequest.BodyPublishers.ofByteArray(separator));
 
             // If value is type of Path (file) append content type with file name and file binaries, otherwise simply append key=value
             if (entry.getValue() instanceof TransferableFile) {
                 var file = (TransferableFile) entry.getValue();
                 String mimeType = "application/octet-stream";
-                byteArrays.add(("\"" + entry.getKey() + "\"; filename=\"" + file.getName()
-                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
-                byteArrays.add(file.getData());
-                byteArrays.add("\r\n".getBytes(StandardCharsets.UTF_8));
+                publishers.add(ofString("\"" + entry.getKey() + "\"; filename=\"" + file.getName()
+                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n"));
+                publishers.add(file.getBodyPublisher());
+                publishers.add(ofString("\r\n"));
             } else if (entry.getValue() instanceof Path) {
                 var path = (Path) entry.getValue();
                 String mimeType = Files.probeContentType(path);
-                byteArrays.add(("\"" + entry.getKey() + "\"; filename=\"" + path.getFileName()
-                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
-                byteArrays.add(Files.readAllBytes(path));
-                byteArrays.add("\r\n".getBytes(StandardCharsets.UTF_8));
+                publishers.add(ofString("\"" + entry.getKey() + "\"; filename=\"" + path.getFileName()
+                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n"));
+                publishers.add(HttpRequest.BodyPublishers.ofFile(path));
+                publishers.add(ofString("\r\n"));
             } else {
-                byteArrays.add(("\"" + entry.getKey() + "\"\r\n\r\n" + entry.getValue() + "\r\n")
-                        .getBytes(StandardCharsets.UTF_8));
+                publishers.add(ofString("\"" + entry.getKey() + "\"\r\n\r\n" + entry.getValue() + "\r\n"));
             }
         }
 
         // Closing boundary
-        byteArrays.add(("--" + boundary + "--").getBytes(StandardCharsets.UTF_8));
+        publishers.add(ofString("--" + boundary + "--"));
+
+        return HttpRequest.BodyPublishers.concat(publishers.toArray(new HttpRequest.BodyPublisher[0]));
+    }
 
-        // Serializing as byte array
-        return HttpRequest.BodyPublishers.ofByteArrays(byteArrays);
+    private static HttpRequest.BodyPublisher ofString(String s) {
+        return HttpRequest.BodyPublishers.ofByteArray(s.getBytes(StandardCharsets.UTF_8));
     }
 
 }
@@ -19,6 +19,11 @@ import java.util.*;
 import static org.gridsuite.cgmes.assembling.job.JdbcQueries.*;
 
 /**
+ * Logger methods are synchronized, as its single connection is shared by the job worker threads.
+ * Inserts are batched and committed in groups: when a group reaches a given size or age, before any read and on close.
+ * A handled file logged with {@link #logFileHandled} is always committed in the same transaction as its dependencies.
+ * Dependencies are logged once by uuid: a file whose uuid was already handled from another origin is only linked to it.
+ *
  * @author Chamseddine Benhamed <chamseddine.benhamed at rte-france.com>
  * @author Franck Lecuyer <franck.lecuyer at rte-france.com>
  */
@@ -28,124 +33,512 @@ public class CgmesAssemblingLogger implements AutoCloseable {
 
     public static final String FILENAME_COLUMN = "FILENAME";
     public static final String UUID_COLUMN = "UUID";
+    public static final String ORIGIN_COLUMN = "origin";
     public static final String DEPENDENCIES_COLUMN = "dependency_uuid";
+    public static final String MISSING_UUID_COLUMN = "missing_uuid";
+    public static final String LAST_MODIFIED_TIME_COLUMN = "last_modified_time";
+    public static final String FULL_SCAN_TIME_COLUMN = "full_scan_time";
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_BATCH_MAX_LATENCY = 1000;
+
+    private static final int FETCH_SIZE = 1000;
+
+    // inserts batches are executed in this order, previous pending assembly rows being deleted before the new ones are inserted
+    private static final List<String> BATCHED_INSERTS = List.of(INSERT_HANDLED_FILE, INSERT_DEPENDENCIES, INSERT_IMPORTED_FILE,
+        DELETE_PENDING_ASSEMBLY, INSERT_PENDING_ASSEMBLY,
+        DELETE_LISTING_WATERMARK, INSERT_LISTING_WATERMARK, DELETE_LISTING_WATERMARK_FILES, INSERT_LISTING_WATERMARK_FILE);
 
     private Connection connection;
 
+    private final int batchSize;
+
+    // in milliseconds
+    private final long batchMaxLatency;
+
+    // prepared statements cache, by query
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    private final Set<String> pendingBatches = new HashSet<>();
+
+    // uuids whose dependencies are in the pending batches, not visible yet to the queries
+    private final Set<String> pendingUuids = new HashSet<>();
+
+    private int pendingRows;
+
+    private long firstPendingRowTime;
+
+    private boolean recursiveQuerySupported = true;
+
+    // number of pending inserts batches rolled back, which may hold rows logged for any origin
+    private long rollbackCount;
+
     public CgmesAssemblingLogger(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_MAX_LATENCY);
+    }
+
+    public CgmesAssemblingLogger(DataSource dataSource, int batchSize, long batchMaxLatency) {
+        this.batchSize = batchSize;
+        this.batchMaxLatency = batchMaxLatency;
         try {
             this.connection = dataSource.getConnection();
+            this.connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private PreparedStatement getStatement(String query) throws SQLException {
+        PreparedStatement preparedStatement = statements.get(query);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(query);
+            statements.put(query, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    private void addBatch(String query, Object... values) throws SQLException {
+        PreparedStatement preparedStatement = getStatement(query);
+        for (int i = 0; i < values.length; i++) {
+            preparedStatement.setObject(i + 1, values[i]);
+        }
+        preparedStatement.addBatch();
+        if (pendingRows == 0) {
+            firstPendingRowTime = System.currentTimeMillis();
+        }
+        pendingBatches.add(query);
+        pendingRows++;
+    }
+
+    private void flushIfNeeded() {
+        if (pendingRows >= batchSize || pendingRows > 0 && System.currentTimeMillis() - firstPendingRowTime >= batchMaxLatency) {
+            flush();
+        }
+    }
+
+    /**
+     * Execute all pending inserts batches and commit them in one transaction
+     */
+    public synchronized void flush() {
+        try {
+            for (String query : BATCHED_INSERTS) {
+                if (pendingBatches.contains(query)) {
+                    statements.get(query).executeBatch();
+                }
+            }
+            connection.commit();
         } catch (SQLException e) {
+            rollback();
             throw new RuntimeException(e);
+        } finally {
+            pendingBatches.clear();
+            pendingUuids.clear();
+            pendingRows = 0;
+        }
+    }
+
+    private void rollback() {
+        try {
+            for (String query : pendingBatches) {
+                statements.get(query).clearBatch();
+            }
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.error("Error rolling back pending inserts", e);
+        } finally {
+            if (pendingRows > 0) {
+                rollbackCount++;
+            }
+            pendingBatches.clear();
+            pendingUuids.clear();
+            pendingRows = 0;
         }
     }
 
-    public boolean isHandledFile(String filename, String origin) {
+    /**
+     * Get the number of failed flushes, whose pending inserts were rolled back. As the pending inserts are shared by all
+     * origins, a state kept in memory for an origin is out of sync with the logger once this number changes.
+     */
+    public synchronized long getRollbackCount() {
+        return rollbackCount;
+    }
+
+    public synchronized boolean isHandledFile(String filename, String origin) {
         return checkValue(SELECT_HANDLED_FILE, filename, origin);
     }
 
-    public boolean isImportedFile(String filename, String origin) {
+    public synchronized boolean isImportedFile(String filename, String origin) {
         return checkValue(SELECT_IMPORTED_FILE, filename, origin);
     }
 
-    public List<String> getDependencies(String uuid) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(SELECT_DEPENDENCIES)) {
-            preparedStatement.setString(1, uuid);
-            ResultSet resultSet = preparedStatement.executeQuery();
+    /**
+     * Load the names of all files handled from an origin, with one streaming query
+     */
+    public synchronized FileNameSet getHandledFileNames(String origin) {
+        return getFileNames(SELECT_HANDLED_FILENAMES, origin);
+    }
 
-            List<String> result = new ArrayList<>();
+    /**
+     * Load the names of all files imported from an origin, with one streaming query
+     */
+    public synchronized FileNameSet getImportedFileNames(String origin) {
+        return getFileNames(SELECT_IMPORTED_FILENAMES, origin);
+    }
 
-            while (resultSet.next()) {
-                result.add(resultSet.getString(DEPENDENCIES_COLUMN));
+    private FileNameSet getFileNames(String query, String origin) {
+        flush();
+        try {
+            PreparedStatement preparedStatement = getStatement(query);
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            preparedStatement.setString(1, origin);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                List<String> result = new ArrayList<>();
+                while (resultSet.next()) {
+                    result.add(resultSet.getString(FILENAME_COLUMN));
+                }
+                return new FileNameSet(result);
             }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized List<String> getDependencies(String uuid) {
+        flush();
+        try {
+            PreparedStatement preparedStatement = getStatement(SELECT_DEPENDENCIES);
+            preparedStatement.setString(1, uuid);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                List<String> result = new ArrayList<>();
 
-            return result;
+                while (resultSet.next()) {
+                    result.add(resultSet.getString(DEPENDENCIES_COLUMN));
+                }
+
+                return result;
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void logFileAvailable(String fileName, String uuid, String origin, Date date) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_HANDLED_FILE)) {
-            preparedStatement.setString(1, fileName);
-            preparedStatement.setString(2, origin);
-            preparedStatement.setDate(3, new java.sql.Date(date.getTime()));
-            preparedStatement.setString(4, uuid);
-            preparedStatement.executeUpdate();
+    /**
+     * Get the deduplicated dependencies closure of a file, including the file itself, with the name of each dependency
+     * handled from the given origin (null for dependencies not handled yet).
+     * The closure is resolved with one recursive query, or walked in memory when recursive queries are not supported.
+     */
+    public synchronized Map<String, String> getDependenciesClosure(String uuid, String origin) {
+        flush();
+        if (recursiveQuerySupported) {
+            try {
+                PreparedStatement preparedStatement = getStatement(SELECT_DEPENDENCIES_CLOSURE);
+                preparedStatement.setString(1, uuid);
+                preparedStatement.setString(2, origin);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    Map<String, String> result = new LinkedHashMap<>();
+                    while (resultSet.next()) {
+                        result.putIfAbsent(resultSet.getString(UUID_COLUMN), resultSet.getString(FILENAME_COLUMN));
+                    }
+                    return result;
+                }
+            } catch (SQLException e) {
+                LOGGER.warn("Recursive dependencies query failed, dependencies are now resolved in memory: {}", e.getMessage());
+                recursiveQuerySupported = false;
+                rollback();
+            }
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String dependencyUuid : CgmesUtils.getDependenciesTreeUuids(uuid, this)) {
+            result.put(dependencyUuid, getFileNameByUuid(dependencyUuid, origin));
+        }
+        return result;
+    }
 
+    /**
+     * Load the dependency graph of the files handled from an origin, with two streaming queries
+     */
+    public synchronized DependencyGraphIndex getDependencyGraph(String origin) {
+        flush();
+        DependencyGraphIndex dependencyGraph = new DependencyGraphIndex();
+        try {
+            PreparedStatement filesStatement = getStatement(SELECT_HANDLED_FILES_UUIDS);
+            filesStatement.setFetchSize(FETCH_SIZE);
+            filesStatement.setString(1, origin);
+            try (ResultSet resultSet = filesStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    dependencyGraph.addFile(resultSet.getString(FILENAME_COLUMN), resultSet.getString(UUID_COLUMN));
+                }
+            }
+            PreparedStatement dependenciesStatement = getStatement(SELECT_ALL_DEPENDENCIES);
+            dependenciesStatement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = dependenciesStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    dependencyGraph.addDependency(resultSet.getString(UUID_COLUMN), resultSet.getString(DEPENDENCIES_COLUMN));
+                }
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        return dependencyGraph;
     }
 
-    public void logFileImported(String fileName, String origin, Date date) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_IMPORTED_FILE)) {
-            preparedStatement.setString(1, fileName);
-            preparedStatement.setString(2, origin);
-            preparedStatement.setDate(3, new java.sql.Date(date.getTime()));
-            preparedStatement.executeUpdate();
+    /**
+     * Load the SV files of an origin waiting for missing dependencies, with one streaming query
+     */
+    public synchronized PendingAssemblyIndex getPendingAssemblies(String origin) {
+        flush();
+        Map<String, List<String>> missingUuidsByFileName = new HashMap<>();
+        try {
+            PreparedStatement preparedStatement = getStatement(SELECT_PENDING_ASSEMBLIES);
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            preparedStatement.setString(1, origin);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    missingUuidsByFileName.computeIfAbsent(resultSet.getString(FILENAME_COLUMN), k -> new ArrayList<>())
+                        .add(resultSet.getString(MISSING_UUID_COLUMN));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        PendingAssemblyIndex pendingAssemblies = new PendingAssemblyIndex();
+        missingUuidsByFileName.forEach(pendingAssemblies::add);
+        return pendingAssemblies;
+    }
 
+    /**
+     * Log an SV file waiting for missing dependencies, replacing its previously logged ones
+     */
+    public synchronized void logAssemblyPending(String fileName, String origin, Date date, Collection<String> missingUuids) {
+        try {
+            addBatch(DELETE_PENDING_ASSEMBLY, fileName, origin);
+            for (String missingUuid : missingUuids) {
+                addBatch(INSERT_PENDING_ASSEMBLY, fileName, origin, missingUuid, new java.sql.Date(date.getTime()));
+            }
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
+        flushIfNeeded();
+    }
+
+    /**
+     * Log an SV file whose dependencies are no longer missing
+     */
+    public synchronized void logAssemblyResolved(String fileName, String origin) {
+        try {
+            addBatch(DELETE_PENDING_ASSEMBLY, fileName, origin);
         } catch (SQLException e) {
+            rollback();
             throw new RuntimeException(e);
         }
+        flushIfNeeded();
     }
 
-    public void logFileDependencies(String uuid, List<String> dependencies) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_DEPENDENCIES)) {
-            for (String dependency : dependencies) {
-                if (dependency != null) {
-                    preparedStatement.setString(1, uuid);
-                    preparedStatement.setString(2, dependency);
-                    preparedStatement.executeUpdate();
+    /**
+     * Load the listing watermark of an origin, or an empty watermark if its directory was never listed
+     */
+    public synchronized ListingWatermark getListingWatermark(String origin) {
+        flush();
+        try {
+            PreparedStatement watermarkStatement = getStatement(SELECT_LISTING_WATERMARK);
+            watermarkStatement.setString(1, origin);
+            try (ResultSet resultSet = watermarkStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return new ListingWatermark();
+                }
+                long lastModifiedTime = resultSet.getLong(LAST_MODIFIED_TIME_COLUMN);
+                long fullScanTime = resultSet.getLong(FULL_SCAN_TIME_COLUMN);
+                PreparedStatement filesStatement = getStatement(SELECT_LISTING_WATERMARK_FILES);
+                filesStatement.setString(1, origin);
+                try (ResultSet filesResultSet = filesStatement.executeQuery()) {
+                    List<String> fileNames = new ArrayList<>();
+                    while (filesResultSet.next()) {
+                        fileNames.add(filesResultSet.getString(FILENAME_COLUMN));
+                    }
+                    return new ListingWatermark(lastModifiedTime, fileNames, fullScanTime);
                 }
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Log the listing watermark of an origin, replacing the previous one
+     */
+    public synchronized void logListingWatermark(String origin, ListingWatermark watermark) {
+        try {
+            addBatch(DELETE_LISTING_WATERMARK, origin);
+            addBatch(INSERT_LISTING_WATERMARK, origin, watermark.getLastModifiedTime(), watermark.getFullScanTime());
+            addBatch(DELETE_LISTING_WATERMARK_FILES, origin);
+            for (String fileName : watermark.getFileNames()) {
+                addBatch(INSERT_LISTING_WATERMARK_FILE, origin, fileName);
+            }
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
+        // committed at once, as a second watermark of the same origin in the same batch would be inserted twice
+        flush();
+    }
+
+    /**
+     * Log a handled file with its dependencies, both committed in the same transaction.
+     * If the file uuid was already handled from another origin, the file is only linked to it, without logging its
+     * dependencies again, and true is returned.
+     */
+    public synchronized boolean logFileHandled(String fileName, String uuid, String origin, Date date, List<String> dependencies) {
+        boolean linked = pendingUuids.contains(uuid) || getOtherOrigin(uuid, origin) != null;
+        try {
+            addFileAvailable(fileName, uuid, origin, date);
+            if (!linked) {
+                addFileDependencies(uuid, dependencies);
+                pendingUuids.add(uuid);
+            }
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
+        if (linked) {
+            LOGGER.info("File {} linked to uuid {} already handled from another origin", fileName, uuid);
+        } else {
+            LOGGER.info("Add dependency between file {} and files {}", uuid, dependencies);
+        }
+        flushIfNeeded();
+        return linked;
+    }
+
+    /**
+     * Get an origin, other than the given one, from which a file with this uuid was handled, or null if there is none.
+     * Pending inserts are not flushed, so that handled files batches are not broken by this lookup.
+     */
+    private String getOtherOrigin(String uuid, String origin) {
+        try {
+            PreparedStatement preparedStatement = getStatement(SELECT_OTHER_ORIGIN_BY_UUID);
+            preparedStatement.setString(1, uuid);
+            preparedStatement.setString(2, origin);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(ORIGIN_COLUMN) : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Check if an assembled case with this SV uuid was already imported, whatever the origin of the SV file.
+     * Only committed imports are found: pending inserts are not flushed, so that batches are not broken by this lookup.
+     */
+    public synchronized boolean isImportedUuid(String uuid) {
+        try {
+            PreparedStatement preparedStatement = getStatement(SELECT_IMPORTED_UUID);
+            preparedStatement.setString(1, uuid);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void logFileAvailable(String fileName, String uuid, String origin, Date date) {
+        try {
+            addFileAvailable(fileName, uuid, origin, date);
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
+        flushIfNeeded();
+    }
+
+    public synchronized void logFileImported(String fileName, String origin, Date date) {
+        try {
+            addBatch(INSERT_IMPORTED_FILE, fileName, origin, new java.sql.Date(date.getTime()));
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
+        flushIfNeeded();
+    }
+
+    public synchronized void logFileDependencies(String uuid, List<String> dependencies) {
+        try {
+            addFileDependencies(uuid, dependencies);
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException(e);
+        }
         LOGGER.info("Add dependency between file {} and files {}", uuid, dependencies);
+        flushIfNeeded();
+    }
+
+    private void addFileAvailable(String fileName, String uuid, String origin, Date date) throws SQLException {
+        addBatch(INSERT_HANDLED_FILE, fileName, origin, new java.sql.Date(date.getTime()), uuid);
+    }
+
+    private void addFileDependencies(String uuid, List<String> dependencies) throws SQLException {
+        for (String dependency : dependencies) {
+            if (dependency != null) {
+                addBatch(INSERT_DEPENDENCIES, uuid, dependency);
+            }
+        }
     }
 
-    public String getFileNameByUuid(String uuid, String origin) {
+    public synchronized String getFileNameByUuid(String uuid, String origin) {
         return getValue(uuid, origin, SELECT_FILENAME_BY_UUID, FILENAME_COLUMN);
     }
 
-    public String getUuidByFileName(String filename, String origin) {
+    public synchronized String getUuidByFileName(String filename, String origin) {
         return getValue(filename, origin, SELECT_UUID_BY_FILENAME, UUID_COLUMN);
     }
 
     private String getValue(String file, String origin, String query, String columnName) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        flush();
+        try {
+            PreparedStatement preparedStatement = getStatement(query);
             preparedStatement.setString(1, file);
             preparedStatement.setString(2, origin);
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            String result = null;
-            if (resultSet.next()) {
-                result = resultSet.getString(columnName);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                String result = null;
+                if (resultSet.next()) {
+                    result = resultSet.getString(columnName);
+                }
+                return result;
             }
-            return result;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     private boolean checkValue(String query, String filename, String origin) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        flush();
+        try {
+            PreparedStatement preparedStatement = getStatement(query);
             preparedStatement.setString(1, filename);
             preparedStatement.setString(2, origin);
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            return resultSet.next();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void close() {
+    public synchronized void close() {
         try {
-            connection.close();
-        } catch (SQLException e) {
-            LOGGER.error("Error closing connection", e);
+            flush();
+        } finally {
+            try {
+                for (PreparedStatement preparedStatement : statements.values()) {
+                    preparedStatement.close();
+                }
+                statements.clear();
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.error("Error closing connection", e);
+            }
         }
     }
 
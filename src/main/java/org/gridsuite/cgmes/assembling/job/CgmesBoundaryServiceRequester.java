@@ -21,10 +21,20 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Boundaries are cached by id, as a boundary content never changes once published, up to a maximum size of contents,
+ * least recently used boundaries being evicted. The last boundaries set can change, so it is only cached for a given
+ * time to live (0 disables its caching). Cached boundaries are shared by all callers.
+ * When a {@link BoundaryStore} is given, boundaries are also kept between job runs, and only boundaries never seen
+ * before are downloaded.
+ *
  * @author Franck Lecuyer <franck.lecuyer at rte-france.com>
  */
 public class CgmesBoundaryServiceRequester {
@@ -37,12 +47,135 @@ public class CgmesBoundaryServiceRequester {
     private static final String BOUNDARY_KEY = "boundary";
     private static final String MESSAGE_STATUS = "Cgmes boundary server response status: {}";
 
+    public static final long DEFAULT_LAST_BOUNDARIES_TTL = 60000;
+
+    public static final long DEFAULT_CACHE_MAX_SIZE = 64L * 1024 * 1024;
+
+    // access ordered, so that the first entry is the least recently used one
+    private final Map<String, BoundaryInfo> boundariesCache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long cacheMaxSize;
+
+    private long cacheSize;
+
+    // in milliseconds
+    private final long lastBoundariesTtl;
+
+    private final BoundaryStore boundaryStore;
+
+    private List<BoundaryInfo> lastBoundaries;
+
+    private long lastBoundariesTime;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    private final AtomicLong lastBoundariesCacheHits = new AtomicLong();
+
     public CgmesBoundaryServiceRequester(String serviceUrl) {
+        this(serviceUrl, 0);
+    }
+
+    public CgmesBoundaryServiceRequester(String serviceUrl, long lastBoundariesTtl) {
+        this(serviceUrl, lastBoundariesTtl, null);
+    }
+
+    public CgmesBoundaryServiceRequester(String serviceUrl, long lastBoundariesTtl, BoundaryStore boundaryStore) {
+        this(serviceUrl, lastBoundariesTtl, boundaryStore, DEFAULT_CACHE_MAX_SIZE);
+    }
+
+    public CgmesBoundaryServiceRequester(String serviceUrl, long lastBoundariesTtl, BoundaryStore boundaryStore, long cacheMaxSize) {
         this.serviceUrl = serviceUrl;
+        this.lastBoundariesTtl = lastBoundariesTtl;
+        this.boundaryStore = boundaryStore;
+        this.cacheMaxSize = cacheMaxSize;
         httpClient = HttpClient.newHttpClient();
     }
 
     public BoundaryInfo getBoundary(String boundaryId) {
+        BoundaryInfo boundary = getCached(boundaryId);
+        if (boundary != null) {
+            cacheHits.incrementAndGet();
+            return boundary;
+        }
+        cacheMisses.incrementAndGet();
+        boundary = boundaryStore != null ? boundaryStore.get(boundaryId) : null;
+        if (boundary == null) {
+            boundary = downloadBoundary(boundaryId);
+            if (boundary == null) {
+                // boundaries not found are not cached, as they can be published later
+                return null;
+            }
+            store(boundaryId, boundary);
+        }
+        return share(boundaryId, boundary);
+    }
+
+    public synchronized List<BoundaryInfo> getLastBoundaries() {
+        if (lastBoundaries != null && System.currentTimeMillis() - lastBoundariesTime < lastBoundariesTtl) {
+            lastBoundariesCacheHits.incrementAndGet();
+            return lastBoundaries;
+        }
+        List<BoundaryInfo> boundaries = new ArrayList<>();
+        for (BoundaryInfo boundary : downloadLastBoundaries()) {
+            if (getCached(boundary.getId()) == null) {
+                store(boundary.getId(), boundary);
+            }
+            boundaries.add(share(boundary.getId(), boundary));
+        }
+        if (!boundaries.isEmpty() && lastBoundariesTtl > 0) {
+            lastBoundaries = Collections.unmodifiableList(boundaries);
+            lastBoundariesTime = System.currentTimeMillis();
+        }
+        return boundaries;
+    }
+
+    private BoundaryInfo getCached(String boundaryId) {
+        synchronized (boundariesCache) {
+            return boundariesCache.get(boundaryId);
+        }
+    }
+
+    // a single instance is kept by cached boundary id, so its content is held once whatever the number of users
+    private BoundaryInfo share(String boundaryId, BoundaryInfo boundary) {
+        synchronized (boundariesCache) {
+            BoundaryInfo previous = boundariesCache.get(boundaryId);
+            if (previous != null) {
+                return previous;
+            }
+            if (boundary.getSize() <= cacheMaxSize) {
+                boundariesCache.put(boundaryId, boundary);
+                cacheSize += boundary.getSize();
+                Iterator<BoundaryInfo> it = boundariesCache.values().iterator();
+                while (cacheSize > cacheMaxSize) {
+                    cacheSize -= it.next().getSize();
+                    it.remove();
+                }
+            }
+            return boundary;
+        }
+    }
+
+    private void store(String boundaryId, BoundaryInfo boundary) {
+        if (boundaryStore != null && !boundaryStore.contains(boundaryId)) {
+            boundaryStore.put(boundaryId, boundary);
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public long getLastBoundariesCacheHits() {
+        return lastBoundariesCacheHits.get();
+    }
+
+    private BoundaryInfo downloadBoundary(String boundaryId) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(serviceUrl + API_VERSION + "/boundaries/" + boundaryId))
@@ -66,7 +199,7 @@ public class CgmesBoundaryServiceRequester {
         return null;
     }
 
-    public List<BoundaryInfo> getLastBoundaries() {
+    private List<BoundaryInfo> downloadLastBoundaries() {
         try {
             HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(serviceUrl + API_VERSION + "/boundaries/last"))
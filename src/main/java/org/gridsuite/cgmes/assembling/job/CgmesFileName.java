@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Parsed name of an individual profile file:
+ * <effectiveDateTime>_<businessProcess>_<sourcingActor>_<modelPart>_<fileVersion>.zip
+ * Names are parsed in a single pass without regex, and nothing is allocated for names which are not profile names.
+ *
+ * @author agent <agent at local>
+ */
+@Getter
+public final class CgmesFileName {
+
+    public static final String EQ_MODEL_PART = "EQ";
+    public static final String SSH_MODEL_PART = "SSH";
+    public static final String SV_MODEL_PART = "SV";
+    public static final String TP_MODEL_PART = "TP";
+
+    private static final String[] MODEL_PARTS = {EQ_MODEL_PART, SSH_MODEL_PART, SV_MODEL_PART, TP_MODEL_PART};
+
+    private static final String EXTENSION = ".zip";
+    private static final int PARTS_COUNT = 5;
+    private static final int VERSION_LENGTH = 3;
+
+    private final String fileName;
+
+    private final String effectiveDateTime;
+
+    private final String businessProcess;
+
+    private final String sourcingActor;
+
+    private final String modelPart;
+
+    private final int version;
+
+    private CgmesFileName(String fileName, String effectiveDateTime, String businessProcess, String sourcingActor, String modelPart, int version) {
+        this.fileName = fileName;
+        this.effectiveDateTime = effectiveDateTime;
+        this.businessProcess = businessProcess;
+        this.sourcingActor = sourcingActor;
+        this.modelPart = modelPart;
+        this.version = version;
+    }
+
+    /**
+     * Parse a file name, or return null if it is not a profile file name
+     */
+    public static CgmesFileName parse(String fileName) {
+        int length = fileName.length();
+        int baseLength = length - EXTENSION.length();
+        if (baseLength <= 0 || !fileName.startsWith(EXTENSION, baseLength)) {
+            return null;
+        }
+
+        // underscores positions, a single dot being allowed: the extension one
+        int separatorsCount = 0;
+        int firstSeparator = -1;
+        int secondSeparator = -1;
+        int thirdSeparator = -1;
+        int fourthSeparator = -1;
+        for (int i = 0; i < baseLength; i++) {
+            char c = fileName.charAt(i);
+            if (c == '.') {
+                return null;
+            } else if (c == '_') {
+                if (separatorsCount == 0) {
+                    firstSeparator = i;
+                } else if (separatorsCount == 1) {
+                    secondSeparator = i;
+                } else if (separatorsCount == 2) {
+                    thirdSeparator = i;
+                } else if (separatorsCount == 3) {
+                    fourthSeparator = i;
+                } else {
+                    return null;
+                }
+                separatorsCount++;
+            }
+        }
+        if (separatorsCount != PARTS_COUNT - 1 || baseLength - fourthSeparator - 1 != VERSION_LENGTH) {
+            return null;
+        }
+
+        String modelPart = getModelPart(fileName, thirdSeparator + 1, fourthSeparator);
+        if (modelPart == null) {
+            return null;
+        }
+
+        int version = 0;
+        for (int i = fourthSeparator + 1; i < baseLength; i++) {
+            char c = fileName.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            version = version * 10 + (c - '0');
+        }
+        if (version == 0) {
+            return null;
+        }
+
+        return new CgmesFileName(fileName,
+            fileName.substring(0, firstSeparator),
+            fileName.substring(firstSeparator + 1, secondSeparator),
+            fileName.substring(secondSeparator + 1, thirdSeparator),
+            modelPart,
+            version);
+    }
+
+    // model part constant matching a name region, to avoid allocating it
+    private static String getModelPart(String fileName, int start, int end) {
+        for (String modelPart : MODEL_PARTS) {
+            if (end - start == modelPart.length() && fileName.startsWith(modelPart, start)) {
+                return modelPart;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that the business process and sourcing actor are authorized. Only EQ files have no business process.
+     */
+    public boolean isAuthorized(Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
+        boolean validBusinessProcess = businessProcess.isEmpty() ? modelPart.equals(EQ_MODEL_PART) : authorizedBusinessProcesses.contains(businessProcess);
+        return validBusinessProcess && authorizedSourcingActors.contains(sourcingActor);
+    }
+
+    public boolean isSV() {
+        return modelPart.equals(SV_MODEL_PART);
+    }
+
+    /**
+     * Name of the assembled CGMES file of an SV file, which is its name without the model part
+     */
+    public String getAssembledFileName() {
+        return effectiveDateTime + "_" + businessProcess + "_" + sourcingActor + fileName.substring(fileName.length() - EXTENSION.length() - VERSION_LENGTH - 1);
+    }
+
+    @Override
+    public String toString() {
+        return fileName;
+    }
+}
@@ -6,8 +6,11 @@
  */
 package org.gridsuite.cgmes.assembling.job;
 
+import com.powsybl.cgmes.model.FullModel;
 import com.powsybl.ws.commons.SecuredZipInputStream;
-import com.powsybl.commons.compress.ZipPackager;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.gridsuite.cgmes.assembling.job.dto.BoundaryInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,8 +18,14 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -30,8 +39,6 @@ public final class CgmesUtils {
     private static final String SSH_MODEL_PART = "SSH";
     private static final String TP_MODEL_PART = "TP";
     private static final Set<String> NEEDED_PROFILES = new TreeSet<>(Arrays.asList(EQ_MODEL_PART, SSH_MODEL_PART, SV_MODEL_PART, TP_MODEL_PART));
-    private static final String DOT_REGEX = "\\.";
-    private static final String UNDERSCORE_REGEX = "_";
     private static final int MAX_ZIP_ENTRIES_COUNT = 100;
     private static final int MAX_ZIP_SIZE = 1000000000;
 
@@ -52,84 +59,92 @@ public final class CgmesUtils {
     <fileVersion>: three characters long positive integer number between 000 and 999. The most recent version has to be used
      */
     public static String getValidProfileFileName(String filename, Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
-        if (filename.split(DOT_REGEX).length == 2) {
-            String base = filename.split(DOT_REGEX)[0];
-            String ext = filename.split(DOT_REGEX)[1];
-            if (ext.equals("zip") && base.split(UNDERSCORE_REGEX).length == 5) {
-                String[] parts = base.split(UNDERSCORE_REGEX);
-                if (isValidModelPart(parts[3]) && isValidBusinessProcess(parts[1], parts[3], authorizedBusinessProcesses) &&
-                    isValidSourcingActor(parts[2], authorizedSourcingActors) && isValidModelVersion(parts[4])) {
-                    return parts[3];
-                }
-            }
-        }
-        return null;
-    }
-
-    public static boolean isValidProfileFileName(String filename, Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
-        return getValidProfileFileName(filename, authorizedSourcingActors, authorizedBusinessProcesses) != null;
+        return getValidProfileFileName(CgmesFileName.parse(filename), authorizedSourcingActors, authorizedBusinessProcesses);
     }
 
-    private static boolean isValidModelVersion(String version) {
-        try {
-            int v = Integer.parseInt(version);
-            return version.length() == 3 && v > 0 && v < 1000;
-        } catch (NumberFormatException e) {
-            LOGGER.warn("Invalid model version {}", version);
-            return false;
-        }
+    public static String getValidProfileFileName(CgmesFileName cgmesFileName, Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
+        return cgmesFileName != null && cgmesFileName.isAuthorized(authorizedSourcingActors, authorizedBusinessProcesses) ? cgmesFileName.getModelPart() : null;
     }
 
-    private static boolean isValidSourcingActor(String sourcingActor, Set<String> authorizedSourcingActors) {
-        return authorizedSourcingActors.contains(sourcingActor);
+    public static boolean isValidProfileFileName(String filename, Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
+        return getValidProfileFileName(filename, authorizedSourcingActors, authorizedBusinessProcesses) != null;
     }
 
-    private static boolean isValidBusinessProcess(String businessProcess, String modelPart, Set<String> authorizedBusinessProcesses) {
-        return businessProcess.isEmpty() ? modelPart.equals(EQ_MODEL_PART) : authorizedBusinessProcesses.contains(businessProcess);
+    public static boolean isSVFile(String filename) {
+        CgmesFileName cgmesFileName = CgmesFileName.parse(filename);
+        return cgmesFileName != null && cgmesFileName.isSV();
     }
 
-    private static boolean isValidModelPart(String modelPart) {
-        return NEEDED_PROFILES.contains(modelPart);
+    /**
+     * Check that the EQ, SSH, SV and TP profiles of an assembly are all available among its dependencies files
+     */
+    public static boolean hasNeededProfiles(Collection<CgmesFileName> fileNames, Set<String> authorizedTsos, Set<String> authorizedBusinessProcesses) {
+        Set<String> availableProfiles = fileNames.stream().map(d -> CgmesUtils.getValidProfileFileName(d, authorizedTsos, authorizedBusinessProcesses)).collect(Collectors.toSet());
+        return availableProfiles.equals(NEEDED_PROFILES);
     }
 
-    public static boolean isSVFile(String filename) {
-        String base = filename.split(DOT_REGEX)[0];
-        String[] parts = base.split(UNDERSCORE_REGEX);
-        return parts[3].equals(SV_MODEL_PART);
+    public static ZipInputStream getZipInputStream(byte[] compressedData) throws IOException {
+        return getZipInputStream(new ByteArrayInputStream(compressedData));
     }
 
-    public static ZipInputStream getZipInputStream(byte[] compressedData) throws IOException {
-        ZipInputStream zis = new SecuredZipInputStream(new ByteArrayInputStream(compressedData), MAX_ZIP_ENTRIES_COUNT, MAX_ZIP_SIZE);
+    public static ZipInputStream getZipInputStream(InputStream compressedData) throws IOException {
+        ZipInputStream zis = new SecuredZipInputStream(compressedData, MAX_ZIP_ENTRIES_COUNT, MAX_ZIP_SIZE);
         zis.getNextEntry();
         return zis;
     }
 
-    public static List<String> getDependenciesTreeUuids(String uuid, CgmesAssemblingLogger cgmesAssemblingLogger) {
-        List<String> dependencies = cgmesAssemblingLogger.getDependencies(uuid);
-        List<String> uuids = new ArrayList<>();
-        if (dependencies == null || dependencies.isEmpty()) {
-            return Arrays.asList(uuid);
+    /**
+     * Parse the FullModel header of a zipped profile. Parsing stops at the end of the FullModel element, so only the
+     * beginning of the zip data is read from the stream.
+     */
+    public static FullModel parseFullModel(InputStream compressedData) throws IOException {
+        try (ZipInputStream zipInputStream = getZipInputStream(compressedData);
+             Reader reader = new InputStreamReader(zipInputStream)) {
+            return FullModel.parse(reader);
         }
-        uuids.add(uuid);
-        for (String depUuid : dependencies) {
-            uuids.addAll(getDependenciesTreeUuids(depUuid, cgmesAssemblingLogger));
+    }
+
+    public static List<String> getDependenciesTreeUuids(String uuid, CgmesAssemblingLogger cgmesAssemblingLogger) {
+        // each uuid is expanded only once, so that shared dependencies are not duplicated and cycles end
+        Set<String> uuids = new LinkedHashSet<>();
+        Deque<String> uuidsToExpand = new ArrayDeque<>();
+        uuidsToExpand.add(uuid);
+        while (!uuidsToExpand.isEmpty()) {
+            String currentUuid = uuidsToExpand.poll();
+            if (uuids.add(currentUuid)) {
+                uuidsToExpand.addAll(cgmesAssemblingLogger.getDependencies(currentUuid));
+            }
         }
-        return uuids;
+        return new ArrayList<>(uuids);
+    }
+
+    public static TransferableFile prepareFinalZip(CgmesFileName fileNameSV, Map<CgmesFileName, String> availableFileDependencies, Set<String> missingDependencies,
+                                                   AcquisitionProvider acquisitionServer, CgmesBoundaryServiceRequester boundaryServiceRequester,
+                                                   boolean dependenciesStrictMode,
+                                                   Set<String> authorizedTsos, Set<String> authorizedBusinessProcesses,
+                                                   long memoryThreshold) throws IOException {
+        return prepareFinalZip(fileNameSV, availableFileDependencies, missingDependencies, acquisitionServer, boundaryServiceRequester,
+            dependenciesStrictMode, authorizedTsos, authorizedBusinessProcesses, memoryThreshold, 0);
     }
 
-    public static TransferableFile prepareFinalZip(String filenameSV, Map<String, String> availableFileDependencies, Set<String> missingDependencies,
-                                                   AcquisitionServer acquisitionServer, CgmesBoundaryServiceRequester boundaryServiceRequester,
+    /**
+     * Prepare the assembled CGMES zip of an SV file, or return null if its dependencies are not resolved.
+     * With a pipe size greater than 0, the zip is pipelined: it is written each time the returned file is read, through
+     * a pipe of this size, so that it is never held as a whole and its compression overlaps its upload, but each
+     * upload retry downloads and compresses its profiles again.
+     * Otherwise, it is written once, and spilled to a temporary file when it gets bigger than the memory threshold.
+     */
+    public static TransferableFile prepareFinalZip(CgmesFileName fileNameSV, Map<CgmesFileName, String> availableFileDependencies, Set<String> missingDependencies,
+                                                   AcquisitionProvider acquisitionServer, CgmesBoundaryServiceRequester boundaryServiceRequester,
                                                    boolean dependenciesStrictMode,
-                                                   Set<String> authorizedTsos, Set<String> authorizedBusinessProcesses) throws IOException {
+                                                   Set<String> authorizedTsos, Set<String> authorizedBusinessProcesses,
+                                                   long memoryThreshold, int pipeSize) throws IOException {
         // test if all needed individual profiles are available
-        Set<String> availableProfiles = availableFileDependencies.keySet().stream().map(d -> CgmesUtils.getValidProfileFileName(d, authorizedTsos, authorizedBusinessProcesses)).collect(Collectors.toSet());
-        if (!availableProfiles.equals(NEEDED_PROFILES)) {
+        if (!hasNeededProfiles(availableFileDependencies.keySet(), authorizedTsos, authorizedBusinessProcesses)) {
             return null;
         }
 
-        ZipPackager emptyZipPackager = new ZipPackager();
-
-        String cgmesFileName = filenameSV.replace("_" + SV_MODEL_PART, "");
+        String cgmesFileName = fileNameSV.getAssembledFileName();
 
         // Search for missing referenced dependencies in the boundaries database table
         List<BoundaryInfo> boundaries = new ArrayList<>();
@@ -155,20 +170,93 @@ public final class CgmesUtils {
             return null;
         }
 
-        boundaries.forEach(boundary -> {
-            LOGGER.info("assembling boundary file {} with uuid {} into CGMES {} file", boundary.getFilename(), boundary.getId(), cgmesFileName);
-            emptyZipPackager.addBytes(boundary.getFilename(), boundary.getBoundary());
-        });
-
-        // Get and add available individual profile files in the zip package
-        for (Map.Entry<String, String> availableFile : availableFileDependencies.entrySet()) {
-            TransferableFile file = acquisitionServer.getFile(availableFile.getKey(), availableFile.getValue());
-            LOGGER.info("assembling available file {} into CGMES {} file", file.getName(), cgmesFileName);
-            try (InputStream is = getZipInputStream(file.getData())) {
-                emptyZipPackager.addBytes(file.getName().replace(".zip", ".xml"), is.readAllBytes());
+        TransferableFile.ContentWriter zipWriter = os -> writeFinalZip(os, cgmesFileName, boundaries, availableFileDependencies, acquisitionServer);
+        if (pipeSize > 0) {
+            return TransferableFile.ofWriter(cgmesFileName, zipWriter, pipeSize);
+        }
+
+        // the assembled zip is streamed, and spilled to a temporary file when it gets bigger than the memory threshold
+        SpillingOutputStream outputStream = new SpillingOutputStream(memoryThreshold);
+        try {
+            zipWriter.write(outputStream);
+        } catch (IOException e) {
+            outputStream.discard();
+            throw e;
+        }
+        return outputStream.toTransferableFile(cgmesFileName);
+    }
+
+    private static void writeFinalZip(OutputStream outputStream, String cgmesFileName, List<BoundaryInfo> boundaries,
+                                      Map<CgmesFileName, String> availableFileDependencies, AcquisitionProvider acquisitionServer) throws IOException {
+        try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(outputStream)) {
+            for (BoundaryInfo boundary : boundaries) {
+                LOGGER.info("assembling boundary file {} with uuid {} into CGMES {} file", boundary.getFilename(), boundary.getId(), cgmesFileName);
+                zipOutputStream.putArchiveEntry(new ZipArchiveEntry(boundary.getFilename()));
+                Channels.newChannel(zipOutputStream).write(boundary.getBoundaryBuffer());
+                zipOutputStream.closeArchiveEntry();
+            }
+
+            // Get and add available individual profile files in the zip package
+            for (Map.Entry<CgmesFileName, String> availableFile : availableFileDependencies.entrySet()) {
+                try (TransferableFile file = acquisitionServer.getFile(availableFile.getKey().getFileName(), availableFile.getValue())) {
+                    LOGGER.info("assembling available file {} into CGMES {} file", file.getName(), cgmesFileName);
+                    addProfileEntry(zipOutputStream, file.getName().replace(".zip", ".xml"), file);
+                }
+            }
+        }
+    }
+
+    private static void addEntry(ZipArchiveOutputStream zipOutputStream, String entryName, InputStream content) throws IOException {
+        zipOutputStream.putArchiveEntry(new ZipArchiveEntry(entryName));
+        content.transferTo(zipOutputStream);
+        zipOutputStream.closeArchiveEntry();
+    }
+
+    /**
+     * Add the profile of a zipped profile file: its compressed data is copied as is when possible, and is inflated
+     * and deflated again otherwise
+     */
+    static void addProfileEntry(ZipArchiveOutputStream zipOutputStream, String entryName, TransferableFile file) throws IOException {
+        try (ZipFile zipFile = openZipFile(file)) {
+            ZipArchiveEntry sourceEntry = zipFile != null ? getRawCopyableEntry(zipFile) : null;
+            if (sourceEntry != null) {
+                ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+                entry.setMethod(sourceEntry.getMethod());
+                entry.setCrc(sourceEntry.getCrc());
+                entry.setCompressedSize(sourceEntry.getCompressedSize());
+                entry.setSize(sourceEntry.getSize());
+                entry.setTime(sourceEntry.getTime());
+                try (InputStream rawData = zipFile.getRawInputStream(sourceEntry)) {
+                    zipOutputStream.addRawArchiveEntry(entry, rawData);
+                }
+                return;
             }
         }
+        try (InputStream is = getZipInputStream(file.getInputStream())) {
+            addEntry(zipOutputStream, entryName, is);
+        }
+    }
 
-        return new TransferableFile(cgmesFileName, emptyZipPackager.toZipBytes());
+    // zip file reading the central directory of a profile, or null if it cannot be read
+    private static ZipFile openZipFile(TransferableFile file) throws IOException {
+        SeekableByteChannel channel = file.newChannel();
+        try {
+            return ZipFile.builder().setSeekableByteChannel(channel).get();
+        } catch (IOException e) {
+            channel.close();
+            LOGGER.debug("{} zip central directory cannot be read: {}", file.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // first entry of a profile zip, as read by the secured zip input stream, if its data can be copied as is
+    private static ZipArchiveEntry getRawCopyableEntry(ZipFile zipFile) {
+        List<ZipArchiveEntry> entries = Collections.list(zipFile.getEntriesInPhysicalOrder());
+        if (entries.isEmpty() || entries.size() > MAX_ZIP_ENTRIES_COUNT) {
+            return null;
+        }
+        ZipArchiveEntry entry = entries.get(0);
+        boolean supportedMethod = entry.getMethod() == ZipEntry.DEFLATED || entry.getMethod() == ZipEntry.STORED;
+        return supportedMethod && zipFile.canReadEntryData(entry) && entry.getSize() >= 0 && entry.getSize() <= MAX_ZIP_SIZE ? entry : null;
     }
 }
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.util.*;
+
+/**
+ * In-memory index of the handled files dependency graph of an origin, loaded once per run and updated as new files
+ * are handled. Uuids are interned to int ids, and each node keeps its dependencies and dependents as int arrays, so
+ * dependencies closure and reverse dependencies are resolved without any database access.
+ *
+ * @author agent <agent at local>
+ */
+public class DependencyGraphIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int[] NO_EDGES = new int[0];
+
+    private final Map<String, Integer> idsByUuid = new HashMap<>();
+
+    private final Map<String, Integer> idsByFileName = new HashMap<>();
+
+    private String[] uuids = new String[INITIAL_CAPACITY];
+
+    // name of the file handled for each node, null if not handled yet
+    private String[] fileNames = new String[INITIAL_CAPACITY];
+
+    private int[][] dependencies = new int[INITIAL_CAPACITY][];
+
+    private int[] dependenciesCount = new int[INITIAL_CAPACITY];
+
+    private int[][] dependents = new int[INITIAL_CAPACITY][];
+
+    private int[] dependentsCount = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    private int intern(String uuid) {
+        Integer id = idsByUuid.get(uuid);
+        if (id == null) {
+            if (size == uuids.length) {
+                int capacity = size * 2;
+                uuids = Arrays.copyOf(uuids, capacity);
+                fileNames = Arrays.copyOf(fileNames, capacity);
+                dependencies = Arrays.copyOf(dependencies, capacity);
+                dependenciesCount = Arrays.copyOf(dependenciesCount, capacity);
+                dependents = Arrays.copyOf(dependents, capacity);
+                dependentsCount = Arrays.copyOf(dependentsCount, capacity);
+            }
+            id = size++;
+            uuids[id] = uuid;
+            dependencies[id] = NO_EDGES;
+            dependents[id] = NO_EDGES;
+            idsByUuid.put(uuid, id);
+        }
+        return id;
+    }
+
+    private static int[] append(int[] edges, int count, int edge) {
+        int[] result = count == edges.length ? Arrays.copyOf(edges, Math.max(2, count * 2)) : edges;
+        result[count] = edge;
+        return result;
+    }
+
+    private static boolean contains(int[] edges, int count, int edge) {
+        for (int i = 0; i < count; i++) {
+            if (edges[i] == edge) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index a handled file with its dependencies
+     */
+    public synchronized void addFile(String fileName, String uuid, List<String> fileDependencies) {
+        addFile(fileName, uuid);
+        for (String dependency : fileDependencies) {
+            if (dependency != null) {
+                addDependency(uuid, dependency);
+            }
+        }
+    }
+
+    public synchronized void addFile(String fileName, String uuid) {
+        int id = intern(uuid);
+        if (fileNames[id] == null) {
+            fileNames[id] = fileName;
+        }
+        idsByFileName.put(fileName, id);
+    }
+
+    public synchronized void addDependency(String uuid, String dependencyUuid) {
+        int id = intern(uuid);
+        int dependencyId = intern(dependencyUuid);
+        if (!contains(dependencies[id], dependenciesCount[id], dependencyId)) {
+            dependencies[id] = append(dependencies[id], dependenciesCount[id]++, dependencyId);
+            dependents[dependencyId] = append(dependents[dependencyId], dependentsCount[dependencyId]++, id);
+        }
+    }
+
+    public synchronized String getUuid(String fileName) {
+        Integer id = idsByFileName.get(fileName);
+        return id != null ? uuids[id] : null;
+    }
+
+    public synchronized String getFileName(String uuid) {
+        Integer id = idsByUuid.get(uuid);
+        return id != null ? fileNames[id] : null;
+    }
+
+    /**
+     * Get the dependencies closure of a file, including the file itself, with the name of the file handled for each
+     * dependency (null for dependencies not handled yet)
+     */
+    public synchronized Map<String, String> getDependenciesClosure(String uuid) {
+        Map<String, String> result = new LinkedHashMap<>();
+        Integer id = idsByUuid.get(uuid);
+        if (id == null) {
+            result.put(uuid, null);
+            return result;
+        }
+        for (int reachedId : walk(id, dependencies, dependenciesCount)) {
+            result.put(uuids[reachedId], fileNames[reachedId]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the uuids of all files depending, directly or not, on a file
+     */
+    public synchronized Set<String> getDependents(String uuid) {
+        Set<String> result = new LinkedHashSet<>();
+        Integer id = idsByUuid.get(uuid);
+        if (id != null) {
+            int[] reachedIds = walk(id, dependents, dependentsCount);
+            // the file itself is the first reached node
+            for (int i = 1; i < reachedIds.length; i++) {
+                result.add(uuids[reachedIds[i]]);
+            }
+        }
+        return result;
+    }
+
+    // breadth first walk, each node being reached once even with shared nodes or cycles
+    private int[] walk(int fromId, int[][] edges, int[] edgesCount) {
+        BitSet visited = new BitSet(size);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = fromId;
+        visited.set(fromId);
+        while (head < tail) {
+            int id = queue[head++];
+            for (int i = 0; i < edgesCount[id]; i++) {
+                int nextId = edges[id][i];
+                if (!visited.get(nextId)) {
+                    visited.set(nextId);
+                    queue[tail++] = nextId;
+                }
+            }
+        }
+        return Arrays.copyOf(queue, tail);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
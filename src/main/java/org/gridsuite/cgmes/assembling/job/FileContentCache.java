@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed cache of acquired files content, bounded in size with LRU eviction.
+ * A cache entry is identified by the file url, size and modification time, so a file modified on the acquisition
+ * server is downloaded again. Entries are stored in a temporary directory which is deleted when the cache is closed.
+ *
+ * @author agent <agent at local>
+ */
+public class FileContentCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentCache.class);
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private long size;
+
+    // access ordered, so that the first entry is the least recently used one
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+
+        private final Path path;
+
+        private final long size;
+
+        private Entry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    public FileContentCache(Path parentDirectory, long maxSize) throws IOException {
+        Files.createDirectories(parentDirectory);
+        this.directory = Files.createTempDirectory(parentDirectory, "cgmes-assembling-cache");
+        this.maxSize = maxSize;
+    }
+
+    private static String getKey(FileInfo fileInfo) {
+        return fileInfo.getUrl() + "|" + fileInfo.getSize() + "|" + fileInfo.getLastModifiedTime();
+    }
+
+    /**
+     * Get a cached file content, memory mapped from its cache entry, or null if it is not cached
+     */
+    public synchronized TransferableFile get(String fileName, FileInfo fileInfo) throws IOException {
+        Entry entry = entries.get(getKey(fileInfo));
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return TransferableFile.ofMappedPath(fileName, entry.path);
+    }
+
+    /**
+     * Store a file content in the cache, and give it back as a transferable file. The content is streamed to disk
+     * without being held in memory.
+     */
+    public TransferableFile put(String fileName, FileInfo fileInfo, InputStream data) throws IOException {
+        Path entryPath = Files.createTempFile(directory, "entry", null);
+        try {
+            Files.copy(data, entryPath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(entryPath);
+            throw e;
+        }
+        long entrySize = Files.size(entryPath);
+        if (entrySize > maxSize) {
+            // too big to be cached
+            return TransferableFile.ofTemporaryPath(fileName, entryPath);
+        }
+
+        TransferableFile file = TransferableFile.ofMappedPath(fileName, entryPath);
+        synchronized (this) {
+            Entry previous = entries.remove(getKey(fileInfo));
+            if (previous != null) {
+                size -= previous.size;
+                Files.deleteIfExists(previous.path);
+            }
+            evict(maxSize - entrySize);
+            entries.put(getKey(fileInfo), new Entry(entryPath, entrySize));
+            size += entrySize;
+        }
+        return file;
+    }
+
+    private void evict(long targetSize) throws IOException {
+        Iterator<Entry> it = entries.values().iterator();
+        while (size > targetSize && it.hasNext()) {
+            Entry eldest = it.next();
+            size -= eldest.size;
+            // already opened mappings of an evicted entry stay valid
+            Files.deleteIfExists(eldest.path);
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (Entry entry : entries.values()) {
+                Files.deleteIfExists(entry.path);
+            }
+            entries.clear();
+            size = 0;
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            LOGGER.error("Error deleting cache directory {}", directory, e);
+        }
+    }
+}
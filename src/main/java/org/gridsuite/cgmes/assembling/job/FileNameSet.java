@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact in memory set of file names, loaded once from the database: names are kept in a sorted array, and
+ * names added afterwards in a small concurrent set.
+ * For very large histories, a Bloom filter gives a fast negative answer for new files without searching the array.
+ *
+ * @author agent <agent at local>
+ */
+public class FileNameSet {
+
+    static final int BLOOM_FILTER_MIN_SIZE = 100000;
+
+    // 10 bits and 7 hash functions per name give a false positive probability around 1%
+    private static final int BLOOM_FILTER_BITS_PER_NAME = 10;
+    private static final int BLOOM_FILTER_HASH_FUNCTIONS = 7;
+
+    private final String[] sortedNames;
+
+    private final BitSet bloomFilter;
+
+    private final int bloomFilterSize;
+
+    private final Set<String> addedNames = ConcurrentHashMap.newKeySet();
+
+    public FileNameSet(Collection<String> names) {
+        sortedNames = names.toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        if (sortedNames.length >= BLOOM_FILTER_MIN_SIZE) {
+            bloomFilterSize = sortedNames.length * BLOOM_FILTER_BITS_PER_NAME;
+            bloomFilter = new BitSet(bloomFilterSize);
+            for (String name : sortedNames) {
+                int hash1 = name.hashCode();
+                int hash2 = mix(hash1);
+                for (int i = 0; i < BLOOM_FILTER_HASH_FUNCTIONS; i++) {
+                    bloomFilter.set(Math.floorMod(hash1 + i * hash2, bloomFilterSize));
+                }
+            }
+        } else {
+            bloomFilterSize = 0;
+            bloomFilter = null;
+        }
+    }
+
+    private static int mix(int hash) {
+        // murmur3 finalizer, to derive a second hash independent enough from String.hashCode
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+
+    private boolean mightContain(String name) {
+        int hash1 = name.hashCode();
+        int hash2 = mix(hash1);
+        for (int i = 0; i < BLOOM_FILTER_HASH_FUNCTIONS; i++) {
+            if (!bloomFilter.get(Math.floorMod(hash1 + i * hash2, bloomFilterSize))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(String name) {
+        if (addedNames.contains(name)) {
+            return true;
+        }
+        if (bloomFilter != null && !mightContain(name)) {
+            return false;
+        }
+        return Arrays.binarySearch(sortedNames, name) >= 0;
+    }
+
+    public void add(String name) {
+        addedNames.add(name);
+    }
+
+    public int size() {
+        return sortedNames.length + addedNames.size();
+    }
+}
@@ -15,9 +15,29 @@ public final class JdbcQueries {
     public static final String INSERT_HANDLED_FILE = "INSERT INTO handled_files (filename, origin, handled_date, uuid) VALUES(?, ?, ?, ?)";
     public static final String INSERT_IMPORTED_FILE = "INSERT INTO imported_files (filename, origin, import_date) VALUES(?, ?, ?)";
     public static final String INSERT_DEPENDENCIES = "INSERT INTO handled_files_dependencies (uuid, dependency_uuid) VALUES(?, ?)";
-    public static final String SELECT_HANDLED_FILE = "SELECT (filename, origin, handled_date) FROM handled_files where filename = ? and origin = ?";
-    public static final String SELECT_IMPORTED_FILE = "SELECT (filename, origin, import_date) FROM imported_files where filename = ? and origin = ?";
-    public static final String SELECT_FILENAME_BY_UUID = "SELECT (filename) FROM handled_files where uuid = ? and origin = ?";
-    public static final String SELECT_UUID_BY_FILENAME = "SELECT (uuid) FROM handled_files where filename = ? and origin = ?";
+    public static final String INSERT_PENDING_ASSEMBLY = "INSERT INTO pending_assemblies (filename, origin, missing_uuid, pending_date) VALUES(?, ?, ?, ?)";
+    public static final String DELETE_PENDING_ASSEMBLY = "DELETE FROM pending_assemblies where filename = ? and origin = ?";
+    public static final String DELETE_LISTING_WATERMARK = "DELETE FROM listing_watermarks where origin = ?";
+    public static final String INSERT_LISTING_WATERMARK = "INSERT INTO listing_watermarks (origin, last_modified_time, full_scan_time) VALUES(?, ?, ?)";
+    public static final String DELETE_LISTING_WATERMARK_FILES = "DELETE FROM listing_watermark_files where origin = ?";
+    public static final String INSERT_LISTING_WATERMARK_FILE = "INSERT INTO listing_watermark_files (origin, filename) VALUES(?, ?)";
+    public static final String SELECT_HANDLED_FILE = "SELECT filename FROM handled_files where filename = ? and origin = ?";
+    public static final String SELECT_IMPORTED_FILE = "SELECT filename FROM imported_files where filename = ? and origin = ?";
+    public static final String SELECT_HANDLED_FILENAMES = "SELECT filename FROM handled_files where origin = ?";
+    public static final String SELECT_IMPORTED_FILENAMES = "SELECT filename FROM imported_files where origin = ?";
+    public static final String SELECT_FILENAME_BY_UUID = "SELECT filename FROM handled_files where uuid = ? and origin = ?";
+    public static final String SELECT_UUID_BY_FILENAME = "SELECT uuid FROM handled_files where filename = ? and origin = ?";
+    public static final String SELECT_OTHER_ORIGIN_BY_UUID = "SELECT origin FROM handled_files where uuid = ? and origin <> ?";
+    public static final String SELECT_IMPORTED_UUID = "SELECT i.origin FROM imported_files i JOIN handled_files h ON h.filename = i.filename and h.origin = i.origin where h.uuid = ?";
+    public static final String SELECT_HANDLED_FILES_UUIDS = "SELECT filename, uuid FROM handled_files where origin = ?";
+    public static final String SELECT_ALL_DEPENDENCIES = "SELECT uuid, dependency_uuid FROM handled_files_dependencies";
+    public static final String SELECT_PENDING_ASSEMBLIES = "SELECT filename, missing_uuid FROM pending_assemblies where origin = ?";
+    public static final String SELECT_LISTING_WATERMARK = "SELECT last_modified_time, full_scan_time FROM listing_watermarks where origin = ?";
+    public static final String SELECT_LISTING_WATERMARK_FILES = "SELECT filename FROM listing_watermark_files where origin = ?";
     public static final String SELECT_DEPENDENCIES = "SELECT dependency_uuid FROM handled_files_dependencies where uuid = ?";
+    // UNION (and not UNION ALL) removes already reached uuids, so that shared dependencies are expanded once and cycles end
+    public static final String SELECT_DEPENDENCIES_CLOSURE = "WITH RECURSIVE closure(uuid) AS ("
+        + "SELECT CAST(? AS VARCHAR(255)) "
+        + "UNION SELECT d.dependency_uuid FROM handled_files_dependencies d JOIN closure c ON d.uuid = c.uuid) "
+        + "SELECT c.uuid, h.filename FROM closure c LEFT JOIN handled_files h ON h.uuid = c.uuid and h.origin = ?";
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the listed profile files keeping, for each (effectiveDateTime, businessProcess, sourcingActor, modelPart)
+ * group, only the file with the highest version. Superseded versions are neither downloaded nor assembled, so an SV
+ * file referencing a superseded version of one of its profiles cannot be assembled: superseded files of the same
+ * (effectiveDateTime, businessProcess, sourcingActor) are kept, to be reported for such an SV file.
+ *
+ * @author agent <agent at local>
+ */
+public class LatestVersionIndex {
+
+    private final Map<String, CgmesFileName> latestByGroup = new HashMap<>();
+
+    // added files, by (effectiveDateTime, businessProcess, sourcingActor)
+    private final Map<String, List<CgmesFileName>> filesByCase = new HashMap<>();
+
+    private int supersededCount;
+
+    private static String getGroup(CgmesFileName fileName) {
+        return getCase(fileName) + '_' + fileName.getModelPart();
+    }
+
+    private static String getCase(CgmesFileName fileName) {
+        return fileName.getEffectiveDateTime() + '_' + fileName.getBusinessProcess() + '_' + fileName.getSourcingActor();
+    }
+
+    public void add(CgmesFileName fileName) {
+        filesByCase.computeIfAbsent(getCase(fileName), k -> new ArrayList<>()).add(fileName);
+        CgmesFileName latest = latestByGroup.putIfAbsent(getGroup(fileName), fileName);
+        if (latest != null) {
+            supersededCount++;
+            if (fileName.getVersion() > latest.getVersion()) {
+                latestByGroup.put(getGroup(fileName), fileName);
+            }
+        }
+    }
+
+    /**
+     * Check if a file is the highest version of its group among the added files
+     */
+    public boolean isLatest(CgmesFileName fileName) {
+        CgmesFileName latest = latestByGroup.get(getGroup(fileName));
+        return latest != null && latest.getFileName().equals(fileName.getFileName());
+    }
+
+    public CgmesFileName getLatest(CgmesFileName fileName) {
+        return latestByGroup.get(getGroup(fileName));
+    }
+
+    /**
+     * Get the names of the superseded files of the same effectiveDateTime, businessProcess and sourcingActor as a file,
+     * and of another model part
+     */
+    public List<String> getSupersededProfiles(CgmesFileName fileName) {
+        List<String> result = new ArrayList<>();
+        for (CgmesFileName caseFileName : filesByCase.getOrDefault(getCase(fileName), List.of())) {
+            if (!caseFileName.getModelPart().equals(fileName.getModelPart()) && !isLatest(caseFileName)) {
+                result.add(caseFileName.getFileName());
+            }
+        }
+        return result;
+    }
+
+    public int getSupersededCount() {
+        return supersededCount;
+    }
+
+    public int size() {
+        return latestByGroup.size();
+    }
+}
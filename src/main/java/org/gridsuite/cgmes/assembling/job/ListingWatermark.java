@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Modification time watermark of an acquisition directory: the most recent modification time already listed, with
+ * the names of the files listed at this time, as several files can share the same (second rounded) time.
+ * Only files newer than the watermark are returned by an incremental listing.
+ *
+ * @author agent <agent at local>
+ */
+public class ListingWatermark {
+
+    private long lastModifiedTime;
+
+    private final Set<String> fileNames;
+
+    private long fullScanTime;
+
+    public ListingWatermark() {
+        this(Long.MIN_VALUE, Set.of(), 0);
+    }
+
+    public ListingWatermark(long lastModifiedTime, Collection<String> fileNames, long fullScanTime) {
+        this.lastModifiedTime = lastModifiedTime;
+        this.fileNames = new HashSet<>(fileNames);
+        this.fullScanTime = fullScanTime;
+    }
+
+    public boolean isNew(FileInfo fileInfo) {
+        return fileInfo.getLastModifiedTime() > lastModifiedTime
+            || fileInfo.getLastModifiedTime() == lastModifiedTime && !fileNames.contains(fileInfo.getName());
+    }
+
+    /**
+     * Move the watermark after the given listed files
+     */
+    public void advance(Collection<FileInfo> files) {
+        for (FileInfo fileInfo : files) {
+            if (fileInfo.getLastModifiedTime() > lastModifiedTime) {
+                lastModifiedTime = fileInfo.getLastModifiedTime();
+                fileNames.clear();
+                fileNames.add(fileInfo.getName());
+            } else if (fileInfo.getLastModifiedTime() == lastModifiedTime) {
+                fileNames.add(fileInfo.getName());
+            }
+        }
+    }
+
+    /**
+     * Move the watermark after the given listed files, stopping before the oldest of the files to be listed again
+     */
+    public void advance(Collection<FileInfo> files, Collection<String> retriedFileNames) {
+        long retriedTime = Long.MAX_VALUE;
+        for (FileInfo fileInfo : files) {
+            if (retriedFileNames.contains(fileInfo.getName())) {
+                retriedTime = Math.min(retriedTime, fileInfo.getLastModifiedTime());
+            }
+        }
+        List<FileInfo> filesBefore = new ArrayList<>();
+        for (FileInfo fileInfo : files) {
+            if (fileInfo.getLastModifiedTime() < retriedTime) {
+                filesBefore.add(fileInfo);
+            }
+        }
+        advance(filesBefore);
+    }
+
+    /**
+     * Check if a full listing is needed to reconcile the files uploaded late or with an older modification time
+     */
+    public boolean isFullScanNeeded(long time, long fullScanInterval) {
+        return time - fullScanTime >= fullScanInterval;
+    }
+
+    public long getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    public Set<String> getFileNames() {
+        return fileNames;
+    }
+
+    public long getFullScanTime() {
+        return fullScanTime;
+    }
+
+    public void setFullScanTime(long fullScanTime) {
+        this.fullScanTime = fullScanTime;
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import com.powsybl.cgmes.model.FullModel;
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquisition directory mounted on the local file system. Headers are probed through file channels without reading
+ * the whole files. Files contents are copied, to the cache when there is one, and never mapped in place, as a file
+ * truncated or replaced by its producer while mapped would fail the assembly reading it.
+ * New files are notified by a watch service, so that they can be handled as soon as they arrive. On network file
+ * systems where changes made by other hosts are not notified, new files are only found by polling.
+ * Files still being written are not listed: a file is only listed once it has not been modified for the settle delay,
+ * and change notifications are debounced for the same delay.
+ *
+ * @author agent <agent at local>
+ */
+public class LocalAcquisitionServer implements AcquisitionProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalAcquisitionServer.class);
+
+    private static final int HEADER_PROBE_BUFFER_SIZE = 16 * 1024;
+
+    public static final long DEFAULT_SETTLE_DELAY = 5000;
+
+    private final Path rootDirectory;
+
+    // in milliseconds
+    private final long settleDelay;
+
+    private final FileContentCache cache;
+
+    // copied files bigger than this threshold are spilled to a temporary file when they are not cached
+    private final long memoryThreshold;
+
+    private WatchService watchService;
+
+    // watched directories, by path
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+
+    // last listed attributes of each file, by url
+    private final Map<String, FileInfo> listedFiles = new ConcurrentHashMap<>();
+
+    public LocalAcquisitionServer(Path rootDirectory) {
+        this(rootDirectory, 0, null, AcquisitionServer.DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    public LocalAcquisitionServer(Path rootDirectory, long settleDelay, FileContentCache cache, long memoryThreshold) {
+        this.rootDirectory = rootDirectory;
+        this.settleDelay = settleDelay;
+        this.cache = cache;
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    @Override
+    public void open() throws IOException {
+        watchService = rootDirectory.getFileSystem().newWatchService();
+    }
+
+    private Path getDirectory(String acquisitionDirPath) {
+        return rootDirectory.resolve(acquisitionDirPath).normalize();
+    }
+
+    @Override
+    public List<FileInfo> listFilesInfo(String acquisitionDirPath, ListingWatermark watermark) throws IOException {
+        List<FileInfo> childrenFiles = new ArrayList<>();
+        // files modified since then may still be written: they are listed by a next pass, and being more recent than
+        // all the listed files, they are not skipped by the watermark
+        long settledTime = System.currentTimeMillis() - settleDelay;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(getDirectory(acquisitionDirPath))) {
+            for (Path child : children) {
+                FileInfo childInfo = getFileInfo(child);
+                if (childInfo != null && childInfo.getLastModifiedTime() > settledTime) {
+                    LOGGER.debug("File {} not settled yet", childInfo.getName());
+                } else if (childInfo != null && (watermark == null || watermark.isNew(childInfo))) {
+                    childrenFiles.add(childInfo);
+                    listedFiles.put(childInfo.getUrl(), childInfo);
+                }
+            }
+        }
+        childrenFiles.sort(MOST_RECENT_FIRST);
+        return childrenFiles;
+    }
+
+    private static FileInfo getFileInfo(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new FileInfo(file.getFileName().toString(), file.toUri().toString(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            // file deleted since the directory was read
+            LOGGER.warn(e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public FileInfo getListedFileInfo(String fileUrl) {
+        return listedFiles.get(fileUrl);
+    }
+
+    @Override
+    public String getFileUrl(String acquisitionDirPath, String fileName) {
+        return getDirectory(acquisitionDirPath).resolve(fileName).toUri().toString();
+    }
+
+    @Override
+    public TransferableFile getFile(String fileName, String fileUrl) throws IOException {
+        // only listed files can be cached, as the cache key needs the file size and modification time
+        FileInfo fileInfo = listedFiles.get(fileUrl);
+        if (cache != null && fileInfo != null) {
+            TransferableFile cachedFile = cache.get(fileName, fileInfo);
+            if (cachedFile != null) {
+                return cachedFile;
+            }
+        }
+
+        Path path = Paths.get(URI.create(fileUrl));
+        TransferableFile file;
+        try (InputStream is = Files.newInputStream(path)) {
+            file = cache != null && fileInfo != null ? cache.put(fileName, fileInfo, is) : TransferableFile.read(fileName, is, memoryThreshold);
+        }
+        // a file rewritten by its producer is read again on next pass, once settled
+        FileInfo copiedFileInfo = getFileInfo(path);
+        if (fileInfo != null && (copiedFileInfo == null || file.getSize() != fileInfo.getSize()
+            || copiedFileInfo.getLastModifiedTime() != fileInfo.getLastModifiedTime())) {
+            file.close();
+            throw new IOException("File " + fileName + " modified since it was listed");
+        }
+        return file;
+    }
+
+    @Override
+    public FullModel getFullModel(String fileUrl) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(URI.create(fileUrl)), StandardOpenOption.READ);
+             InputStream is = new BufferedInputStream(Channels.newInputStream(channel), HEADER_PROBE_BUFFER_SIZE)) {
+            return CgmesUtils.parseFullModel(is);
+        }
+    }
+
+    @Override
+    public boolean awaitChanges(String acquisitionDirPath, long timeout) throws IOException, InterruptedException {
+        Path directory = getDirectory(acquisitionDirPath);
+        if (!watchKeys.containsKey(directory)) {
+            watchKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        WatchKey watchKey = watchService.poll(timeout, TimeUnit.MILLISECONDS);
+        if (watchKey == null) {
+            return false;
+        }
+        // all pending changes are consumed, as a single listing finds them all, and changes are debounced until no
+        // file has been modified for the settle delay, as files being written keep on notifying modifications
+        long debounceEnd = System.currentTimeMillis() + Math.max(timeout, settleDelay);
+        while (watchKey != null) {
+            watchKey.pollEvents();
+            watchKey.reset();
+            long debounceTimeout = Math.min(settleDelay, debounceEnd - System.currentTimeMillis());
+            watchKey = debounceTimeout > 0 ? watchService.poll(debounceTimeout, TimeUnit.MILLISECONDS) : watchService.poll();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
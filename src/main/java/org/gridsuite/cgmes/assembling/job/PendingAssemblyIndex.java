@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.util.*;
+
+/**
+ * Index of the SV files waiting for missing dependencies, with the reverse index from each missing uuid to the SV
+ * files waiting for it. A pending SV file is only evaluated again when one of its missing files is handled.
+ *
+ * @author agent <agent at local>
+ */
+public class PendingAssemblyIndex {
+
+    private final Map<String, Set<String>> missingUuidsByFileName = new HashMap<>();
+
+    private final Map<String, Set<String>> fileNamesByMissingUuid = new HashMap<>();
+
+    /**
+     * Set the missing dependencies of a pending SV file, replacing the previous ones
+     */
+    public synchronized void add(String fileName, Collection<String> missingUuids) {
+        remove(fileName);
+        if (!missingUuids.isEmpty()) {
+            missingUuidsByFileName.put(fileName, new HashSet<>(missingUuids));
+            for (String missingUuid : missingUuids) {
+                fileNamesByMissingUuid.computeIfAbsent(missingUuid, k -> new HashSet<>()).add(fileName);
+            }
+        }
+    }
+
+    public synchronized void remove(String fileName) {
+        Set<String> missingUuids = missingUuidsByFileName.remove(fileName);
+        if (missingUuids != null) {
+            for (String missingUuid : missingUuids) {
+                Set<String> fileNames = fileNamesByMissingUuid.get(missingUuid);
+                fileNames.remove(fileName);
+                if (fileNames.isEmpty()) {
+                    fileNamesByMissingUuid.remove(missingUuid);
+                }
+            }
+        }
+    }
+
+    public synchronized boolean isPending(String fileName) {
+        return missingUuidsByFileName.containsKey(fileName);
+    }
+
+    public synchronized Set<String> getMissingUuids(String fileName) {
+        return Collections.unmodifiableSet(missingUuidsByFileName.getOrDefault(fileName, Collections.emptySet()));
+    }
+
+    /**
+     * Get the pending SV files waiting for a uuid, which have to be evaluated again now that it is available
+     */
+    public synchronized Set<String> getWaitingFileNames(String uuid) {
+        return new HashSet<>(fileNamesByMissingUuid.getOrDefault(uuid, Collections.emptySet()));
+    }
+
+    public synchronized int size() {
+        return missingUuidsByFileName.size();
+    }
+}
@@ -10,6 +10,7 @@ import com.powsybl.cgmes.model.FullModel;
 import com.powsybl.commons.PowsyblException;
 import com.powsybl.commons.config.ModuleConfig;
 import com.powsybl.commons.config.PlatformConfig;
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -17,11 +18,17 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 import javax.sql.DataSource;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.zip.ZipInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Chamseddine Benhamed <chamseddine.benhamed at rte-france.com>
@@ -34,8 +41,18 @@ public class ProfilesAcquisitionJob implements CommandLineRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProfilesAcquisitionJob.class);
 
+    private static final long DEFAULT_CACHE_MAX_SIZE = 1024L * 1024 * 1024;
+
+    private static final long DEFAULT_AUTHORIZATIONS_REFRESH_INTERVAL = 600000;
+
+    private static final long DEFAULT_FULL_SCAN_INTERVAL = 3600000;
+
     private DataSource dataSource;
 
+    private static final long STOP_CHECK_INTERVAL = 100;
+
+    private volatile boolean stopped;
+
     public ProfilesAcquisitionJob(DataSource dataSource) {
         this.dataSource = dataSource;
     }
@@ -50,127 +67,490 @@ public class ProfilesAcquisitionJob implements CommandLineRunner {
     }
 
     public void handle(Boolean dependenciesStrictMode) {
+        handle(dependenciesStrictMode, null);
+    }
+
+    /**
+     * Acquire and assemble files once, or in daemon mode, repeatedly until {@link #stop} is called, the acquisition
+     * directory being polled on an interval which shortens when files are arriving and backs off when idle
+     */
+    public void handle(Boolean dependenciesStrictMode, Boolean daemon) {
 
         PlatformConfig platformConfig = PlatformConfig.defaultConfig();
 
         ModuleConfig moduleConfigAcquisitionServer = platformConfig.getOptionalModuleConfig("acquisition-server").orElseThrow(() -> new PowsyblException("Module acquisition-server not found !!"));
         ModuleConfig moduleConfigCaseServer = platformConfig.getOptionalModuleConfig("case-server").orElseThrow(() -> new PowsyblException("Module case-server not found !!"));
         ModuleConfig moduleConfigCgmesBoundaryServer = platformConfig.getOptionalModuleConfig("cgmes-boundary-server").orElseThrow(() -> new PowsyblException("Module cgmes-boundary-server not found !!"));
+        Optional<ModuleConfig> moduleConfigLogger = platformConfig.getOptionalModuleConfig("cgmes-assembling-logger");
 
         final CaseImportServiceRequester caseImportServiceRequester = new CaseImportServiceRequester(moduleConfigCaseServer.getStringProperty("url"));
-        final CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester = new CgmesBoundaryServiceRequester(moduleConfigCgmesBoundaryServer.getStringProperty("url"));
-
-        try (AcquisitionServer acquisitionServer = new AcquisitionServer(moduleConfigAcquisitionServer.getStringProperty("url"),
-                                                                         moduleConfigAcquisitionServer.getStringProperty("username"),
-                                                                         moduleConfigAcquisitionServer.getStringProperty("password"));
-             CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
-            acquisitionServer.open();
-
-            String casesDirectory = moduleConfigAcquisitionServer.getStringProperty("cases-directory");
-            String acquisitionServerLabel = moduleConfigAcquisitionServer.getStringProperty("label");
-
-            // Get list of all tsos and business processes from cgmes boundary server
-            Set<String> authorizedTsos = cgmesBoundaryServiceRequester.getTsosList();
-            Set<String> authorizedBusinessProcesses = cgmesBoundaryServiceRequester.getBusinessProcessesList();
-
-            // Get valid zip files
-            Map<String, String> filesToAcquire = acquisitionServer.listFiles(casesDirectory).entrySet()
-                    .stream()
-                    .filter(file -> CgmesUtils.isValidProfileFileName(file.getKey(), authorizedTsos, authorizedBusinessProcesses))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (x, y) -> y, LinkedHashMap::new));
-            LOGGER.info("{} valid files found on acquisition server", filesToAcquire.size());
-
-            // Get SV files
-            Map<String, String> filesSV = filesToAcquire.entrySet()
-                    .stream()
-                    .filter(file -> CgmesUtils.isSVFile(file.getKey()))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (x, y) -> y, LinkedHashMap::new));
-            LOGGER.info("{} valid SV files found on acquisition server", filesSV.size());
-
-            List<String> filesHandled = new ArrayList<>();
-            List<String> filesAlreadyHandled = new ArrayList<>();
-            List<String> filesImportingFailed = new ArrayList<>();
-            List<String> filesSuccessfullyImported = new ArrayList<>();
-            List<String> filesAlreadyImported = new ArrayList<>();
-
-            for (Map.Entry<String, String> fileInfo : filesToAcquire.entrySet()) {
-                if (!cgmesAssemblingLogger.isHandledFile(fileInfo.getKey(), acquisitionServerLabel)) {
-                    LOGGER.info("Handling file '{}'...", fileInfo.getKey());
-                    // Download the file
-                    TransferableFile acquiredFile = acquisitionServer.getFile(fileInfo.getKey(), fileInfo.getValue());
-
-                    try (ZipInputStream zipInputStream = CgmesUtils.getZipInputStream(acquiredFile.getData());
-                         Reader reader = new InputStreamReader(zipInputStream)) {
-                        FullModel fullModel = FullModel.parse(reader);
-                        cgmesAssemblingLogger.logFileAvailable(fileInfo.getKey(), fullModel.getId(), acquisitionServerLabel, new Date());
-                        cgmesAssemblingLogger.logFileDependencies(fullModel.getId(), fullModel.getDependentOn());
-                    }
-                    filesHandled.add(fileInfo.getKey());
-                } else {
-                    filesAlreadyHandled.add(fileInfo.getKey());
-                }
+        final CaseImportDispatcher caseImportDispatcher = new CaseImportDispatcher(caseImportServiceRequester,
+            new AdaptiveConcurrencyLimiter(moduleConfigCaseServer.getIntProperty("min-in-flight", 1),
+                moduleConfigCaseServer.getIntProperty("max-in-flight", CaseImportDispatcher.DEFAULT_MAX_IN_FLIGHT),
+                moduleConfigCaseServer.getLongProperty("latency-threshold", CaseImportDispatcher.DEFAULT_LATENCY_THRESHOLD)),
+            moduleConfigCaseServer.getIntProperty("max-retries", CaseImportDispatcher.DEFAULT_MAX_RETRIES),
+            moduleConfigCaseServer.getLongProperty("retry-backoff", CaseImportDispatcher.DEFAULT_RETRY_BACKOFF));
+        final CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester = new CgmesBoundaryServiceRequester(moduleConfigCgmesBoundaryServer.getStringProperty("url"),
+            moduleConfigCgmesBoundaryServer.getLongProperty("last-boundaries-ttl", CgmesBoundaryServiceRequester.DEFAULT_LAST_BOUNDARIES_TTL),
+            createBoundaryStore(moduleConfigCgmesBoundaryServer),
+            moduleConfigCgmesBoundaryServer.getLongProperty("cache-max-size", CgmesBoundaryServiceRequester.DEFAULT_CACHE_MAX_SIZE));
+
+        long cacheMaxSize = moduleConfigAcquisitionServer.getLongProperty("cache-max-size", DEFAULT_CACHE_MAX_SIZE);
+        Path cacheDirectory = moduleConfigAcquisitionServer.getOptionalPathProperty("cache-directory")
+                .orElse(Paths.get(System.getProperty("java.io.tmpdir")));
+        long memoryThreshold = moduleConfigAcquisitionServer.getLongProperty("memory-threshold", AcquisitionServer.DEFAULT_MEMORY_THRESHOLD);
+        int parallelism = moduleConfigAcquisitionServer.getIntProperty("parallelism", 1);
+        // assembled files are pipelined to the case server when a pipe size is given, at the cost of assembling them
+        // again on each case import retry
+        int assemblyPipeSize = moduleConfigAcquisitionServer.getIntProperty("assembly-pipe-size", 0);
+        int assemblyParallelism = moduleConfigAcquisitionServer.getIntProperty("assembly-parallelism", 1);
+        long assemblyMemoryBudget = moduleConfigAcquisitionServer.getLongProperty("assembly-memory-budget", AssemblyScheduler.DEFAULT_MEMORY_BUDGET);
+        boolean strictMode = dependenciesStrictMode == null
+            ? moduleConfigAcquisitionServer.getBooleanProperty("dependencies-strict-mode", false)
+            : dependenciesStrictMode;
+        // with an incremental listing, only the files newer than the directory watermark are listed, and the whole
+        // directory is listed again periodically to catch files uploaded late
+        boolean incrementalListing = moduleConfigAcquisitionServer.getBooleanProperty("incremental-listing", false);
+        long fullScanInterval = moduleConfigAcquisitionServer.getLongProperty("full-scan-interval", DEFAULT_FULL_SCAN_INTERVAL);
+        boolean daemonMode = daemon == null
+            ? moduleConfigAcquisitionServer.getBooleanProperty("daemon", false)
+            : daemon;
+        List<AcquisitionSource> sources = new ArrayList<>();
+        ExecutorService sourcesExecutor = null;
+
+        try (FileContentCache fileContentCache = cacheMaxSize > 0 ? new FileContentCache(cacheDirectory, cacheMaxSize) : null;
+             CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource,
+                 moduleConfigLogger.map(c -> c.getIntProperty("batch-size", CgmesAssemblingLogger.DEFAULT_BATCH_SIZE)).orElse(CgmesAssemblingLogger.DEFAULT_BATCH_SIZE),
+                 moduleConfigLogger.map(c -> c.getLongProperty("batch-max-latency", CgmesAssemblingLogger.DEFAULT_BATCH_MAX_LATENCY)).orElse(CgmesAssemblingLogger.DEFAULT_BATCH_MAX_LATENCY));
+             AssemblyScheduler assemblyScheduler = new AssemblyScheduler(assemblyParallelism, assemblyMemoryBudget)) {
+            // Each acquisition source has its own servers sessions and handling workers, sources being handled concurrently
+            for (ModuleConfig moduleConfigSource : getSourcesConfigs(platformConfig, moduleConfigAcquisitionServer)) {
+                AcquisitionSource source = new AcquisitionSource(moduleConfigSource.getStringProperty("label"),
+                    moduleConfigSource.getStringProperty("cases-directory"),
+                    createAcquisitionProvider(moduleConfigSource, moduleConfigSource.getIntProperty("parallelism", parallelism), fileContentCache, memoryThreshold),
+                    moduleConfigSource.getIntProperty("parallelism", parallelism));
+                sources.add(source);
+                source.open();
             }
+            sourcesExecutor = Executors.newFixedThreadPool(sources.size());
+            // SV uuids being imported, or imported but not committed yet, so that a case received by several sources is imported once
+            Set<String> importedUuids = ConcurrentHashMap.newKeySet();
 
-            for (Map.Entry<String, String> fileInfo : filesSV.entrySet()) {
-                if (!cgmesAssemblingLogger.isImportedFile(fileInfo.getKey(), acquisitionServerLabel)) {
-                    LOGGER.info("SV file '{}'...", fileInfo.getKey());
-                    String uuid = cgmesAssemblingLogger.getUuidByFileName(fileInfo.getKey(), acquisitionServerLabel);
-
-                    // Identify available and missing file dependencies
-                    List<String> dependencies = CgmesUtils.getDependenciesTreeUuids(uuid, cgmesAssemblingLogger);
-                    Map<String, String> availableFileDependencies = new LinkedHashMap<>();
-                    Set<String> missingDependencies = new HashSet<>();
-                    for (String dependUuid : dependencies) {
-                        String dependFileName = cgmesAssemblingLogger.getFileNameByUuid(dependUuid, acquisitionServerLabel);
-                        if (dependFileName != null) {
-                            availableFileDependencies.put(dependFileName, filesToAcquire.get(dependFileName));
+            // In daemon mode, the servers connections and the logger are kept from one pass to the next
+            AdaptivePollingInterval pollingInterval = new AdaptivePollingInterval(
+                moduleConfigAcquisitionServer.getLongProperty("min-polling-interval", AdaptivePollingInterval.DEFAULT_MIN_INTERVAL),
+                moduleConfigAcquisitionServer.getLongProperty("max-polling-interval", AdaptivePollingInterval.DEFAULT_MAX_INTERVAL));
+            long authorizationsRefreshInterval = moduleConfigAcquisitionServer.getLongProperty("authorizations-refresh-interval", DEFAULT_AUTHORIZATIONS_REFRESH_INTERVAL);
+            Set<String> authorizedTsos = null;
+            Set<String> authorizedBusinessProcesses = null;
+            long authorizationsLoadTime = 0;
+            do {
+                int handledFilesCount = 0;
+                try {
+                    // Get list of all tsos and business processes from cgmes boundary server
+                    if (authorizedTsos == null || System.currentTimeMillis() - authorizationsLoadTime >= authorizationsRefreshInterval) {
+                        Set<String> tsos = cgmesBoundaryServiceRequester.getTsosList();
+                        Set<String> businessProcesses = cgmesBoundaryServiceRequester.getBusinessProcessesList();
+                        if (!tsos.isEmpty() && !businessProcesses.isEmpty()) {
+                            authorizedTsos = tsos;
+                            authorizedBusinessProcesses = businessProcesses;
+                            authorizationsLoadTime = System.currentTimeMillis();
                         } else {
-                            missingDependencies.add(dependUuid);
+                            // an empty list is a boundary server failure: previous authorizations are kept, if any, and
+                            // loaded again on next pass
+                            LOGGER.warn("Authorizations not loaded from cgmes boundary server, loaded again on next pass");
+                            if (authorizedTsos == null) {
+                                authorizedTsos = tsos;
+                                authorizedBusinessProcesses = businessProcesses;
+                            }
                         }
                     }
-
-                    // Assembling profiles
-                    TransferableFile assembledFile = CgmesUtils.prepareFinalZip(fileInfo.getKey(), availableFileDependencies,
-                        missingDependencies, acquisitionServer, cgmesBoundaryServiceRequester,
-                        dependenciesStrictMode == null
-                            ? moduleConfigAcquisitionServer.getBooleanProperty("dependencies-strict-mode", false)
-                            : dependenciesStrictMode,
-                        authorizedTsos, authorizedBusinessProcesses);
-
-                    if (assembledFile != null) {
-                        // Import assembled file in the case server
-                        boolean importOk = caseImportServiceRequester.importCase(assembledFile);
-                        if (!importOk) {
-                            filesImportingFailed.add(fileInfo.getKey());
-                        } else {
-                            filesSuccessfullyImported.add(fileInfo.getKey());
-                            cgmesAssemblingLogger.logFileImported(fileInfo.getKey(), acquisitionServerLabel, new Date());
-                        }
-                    } else {
-                        LOGGER.error("{} file's dependencies are not resolved yet", fileInfo.getKey());
+                } catch (RuntimeException e) {
+                    if (!daemonMode) {
+                        throw e;
                     }
-                } else {
-                    filesAlreadyImported.add(fileInfo.getKey());
+                    LOGGER.error("Authorizations loading error", e);
+                    pollingInterval.update(0);
+                    continue;
                 }
-            }
 
-            LOGGER.info("===== JOB EXECUTION SUMMARY =====");
-            LOGGER.info("{} files already handled", filesAlreadyHandled.size());
-            LOGGER.info("{} files successfully handled", filesHandled.size());
-            filesHandled.forEach(f -> LOGGER.info("File '{}' successfully handled", f));
-
-            LOGGER.info("{} files import succeeded", filesSuccessfullyImported.size());
-            filesSuccessfullyImported.forEach(f -> LOGGER.info("Assembled files with  '{}' file successfully imported !!", f));
-            LOGGER.info("{} files import failed", filesImportingFailed.size());
-            filesImportingFailed.forEach(f -> LOGGER.info("Assembled files with  '{}' file import failed !!", f));
-            LOGGER.info("{} files already imported", filesAlreadyImported.size());
-            filesAlreadyImported.forEach(f -> LOGGER.info("Assembled files with  '{}' file  already imported !!", f));
-            LOGGER.info("=================================");
+                Map<AcquisitionSource, Future<Integer>> passes = new LinkedHashMap<>();
+                for (AcquisitionSource source : sources) {
+                    Set<String> sourceAuthorizedTsos = authorizedTsos;
+                    Set<String> sourceAuthorizedBusinessProcesses = authorizedBusinessProcesses;
+                    passes.put(source, sourcesExecutor.submit(() -> acquire(source, cgmesAssemblingLogger,
+                        cgmesBoundaryServiceRequester, caseImportDispatcher, assemblyScheduler, fileContentCache, strictMode, memoryThreshold,
+                        assemblyPipeSize, sourceAuthorizedTsos, sourceAuthorizedBusinessProcesses, incrementalListing, fullScanInterval, importedUuids)));
+                }
+                for (Map.Entry<AcquisitionSource, Future<Integer>> pass : passes.entrySet()) {
+                    try {
+                        handledFilesCount += pass.getValue().get();
+                    } catch (ExecutionException e) {
+                        // a source failure does not stop the other sources, files not handled yet are handled again on next pass
+                        LOGGER.error("Acquisition pass error on {}", pass.getKey().getLabel(), e.getCause());
+                        pass.getKey().resetState();
+                    }
+                }
+                pollingInterval.update(handledFilesCount);
+            } while (daemonMode && waitNextPass(sources, pollingInterval.getInterval()));
         } catch (InterruptedException e) {
             LOGGER.error("Interruption during assembling");
             Thread.currentThread().interrupt();
         } catch (Exception exc) {
             LOGGER.error("Job execution error: {}", exc);
+        } finally {
+            if (sourcesExecutor != null) {
+                sourcesExecutor.shutdownNow();
+            }
+            sources.forEach(ProfilesAcquisitionJob::closeSource);
+        }
+    }
+
+    static List<ModuleConfig> getSourcesConfigs(PlatformConfig platformConfig, ModuleConfig moduleConfigAcquisitionServer) {
+        // without sources list, the acquisition-server module is the single source
+        Optional<List<String>> sourcesNames = moduleConfigAcquisitionServer.getOptionalStringListProperty("sources");
+        if (sourcesNames.isEmpty()) {
+            return List.of(moduleConfigAcquisitionServer);
+        }
+        List<ModuleConfig> sourcesConfigs = new ArrayList<>();
+        for (String sourceName : sourcesNames.get()) {
+            String moduleName = "acquisition-server-" + sourceName;
+            sourcesConfigs.add(platformConfig.getOptionalModuleConfig(moduleName).orElseThrow(() -> new PowsyblException("Module " + moduleName + " not found !!")));
+        }
+        return sourcesConfigs;
+    }
+
+    private static void closeSource(AcquisitionSource source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing acquisition source {}", source.getLabel(), e);
+        }
+    }
+
+    /**
+     * Handle the new files of the acquisition server, then assemble and import the SV files which can be.
+     * Return the number of newly handled files.
+     */
+    private static int acquire(AcquisitionSource source, CgmesAssemblingLogger cgmesAssemblingLogger,
+                               CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester, CaseImportDispatcher caseImportDispatcher,
+                               AssemblyScheduler assemblyScheduler, FileContentCache fileContentCache,
+                               boolean strictMode, long memoryThreshold, int assemblyPipeSize,
+                               Set<String> authorizedTsos, Set<String> authorizedBusinessProcesses,
+                               boolean incrementalListing, long fullScanInterval, Set<String> importedUuids) throws IOException, InterruptedException {
+        AcquisitionProvider acquisitionServer = source.getProvider();
+        String casesDirectory = source.getCasesDirectory();
+        String acquisitionServerLabel = source.getLabel();
+        ExecutorService handlingExecutor = source.getHandlingExecutor();
+
+        // Handled and imported files, dependency graph, pending assemblies and listing watermark are loaded on the source
+        // first pass, instead of being checked file by file, and kept up to date by the next passes
+        source.loadState(cgmesAssemblingLogger);
+
+        ListingWatermark watermark = null;
+        boolean fullScan = true;
+        if (incrementalListing) {
+            watermark = source.getListingWatermark();
+            fullScan = watermark.isFullScanNeeded(System.currentTimeMillis(), fullScanInterval);
+        }
+        long listingTime = System.currentTimeMillis();
+        List<FileInfo> listedFilesInfo = acquisitionServer.listFilesInfo(casesDirectory, fullScan ? null : watermark);
+        LOGGER.info("{} files listed on acquisition server ({} listing)", listedFilesInfo.size(), fullScan ? "full" : "incremental");
+
+        // Get valid zip files, each file name being parsed only once
+        Map<String, String> listedFiles = new LinkedHashMap<>();
+        for (FileInfo listedFileInfo : listedFilesInfo) {
+            listedFiles.put(listedFileInfo.getName(), listedFileInfo.getUrl());
+        }
+        Map<String, CgmesFileName> validFiles = new LinkedHashMap<>();
+        LatestVersionIndex latestVersions = new LatestVersionIndex();
+        for (String fileName : listedFiles.keySet()) {
+            CgmesFileName cgmesFileName = CgmesFileName.parse(fileName);
+            if (cgmesFileName != null && cgmesFileName.isAuthorized(authorizedTsos, authorizedBusinessProcesses)) {
+                validFiles.put(fileName, cgmesFileName);
+                latestVersions.add(cgmesFileName);
+            }
+        }
+
+        // Only the most recent version of each profile is acquired, superseded versions are skipped
+        Map<String, String> filesToAcquire = new LinkedHashMap<>();
+        Map<String, String> filesSV = new LinkedHashMap<>();
+        for (CgmesFileName cgmesFileName : validFiles.values()) {
+            if (latestVersions.isLatest(cgmesFileName)) {
+                filesToAcquire.put(cgmesFileName.getFileName(), listedFiles.get(cgmesFileName.getFileName()));
+                if (cgmesFileName.isSV()) {
+                    filesSV.put(cgmesFileName.getFileName(), listedFiles.get(cgmesFileName.getFileName()));
+                }
+            }
+        }
+        LOGGER.info("{} valid files found on acquisition server, {} superseded versions skipped", filesToAcquire.size(), latestVersions.getSupersededCount());
+        LOGGER.info("{} valid SV files found on acquisition server", filesSV.size());
+
+        FileNameSet handledFiles = source.getHandledFiles();
+        FileNameSet importedFiles = source.getImportedFiles();
+        // SV assembly decisions are taken from the dependency graph
+        DependencyGraphIndex dependencyGraph = source.getDependencyGraph();
+        // SV files waiting for missing dependencies are only evaluated again when one of them is handled
+        PendingAssemblyIndex pendingAssemblies = source.getPendingAssemblies();
+        Set<String> wokenAssemblies = new HashSet<>();
+
+        List<String> filesHandled = new ArrayList<>();
+        List<String> filesAlreadyHandled = new ArrayList<>();
+        List<String> filesHandlingFailed = new ArrayList<>();
+        // completed by the import dispatcher threads
+        List<String> filesImportingFailed = Collections.synchronizedList(new ArrayList<>());
+        List<String> filesSuccessfullyImported = Collections.synchronizedList(new ArrayList<>());
+        List<String> uuidsSuccessfullyImported = Collections.synchronizedList(new ArrayList<>());
+        List<String> filesAlreadyImported = new ArrayList<>();
+        List<String> filesStillPending = new ArrayList<>();
+
+        // Files are downloaded and parsed concurrently, each worker using its own acquisition server session
+        Map<String, Future<FullModel>> filesHandling = new LinkedHashMap<>();
+        for (Map.Entry<String, String> fileInfo : filesToAcquire.entrySet()) {
+            if (!handledFiles.contains(fileInfo.getKey())) {
+                filesHandling.put(fileInfo.getKey(), handlingExecutor.submit(() ->
+                    handleFile(fileInfo.getKey(), fileInfo.getValue(), acquisitionServer, cgmesAssemblingLogger, acquisitionServerLabel)));
+            } else {
+                filesAlreadyHandled.add(fileInfo.getKey());
+            }
+        }
+        for (Map.Entry<String, Future<FullModel>> fileHandling : filesHandling.entrySet()) {
+            try {
+                FullModel fullModel = fileHandling.getValue().get();
+                dependencyGraph.addFile(fileHandling.getKey(), fullModel.getId(), fullModel.getDependentOn());
+                wokenAssemblies.addAll(pendingAssemblies.getWaitingFileNames(fullModel.getId()));
+            } catch (ExecutionException e) {
+                // a file which cannot be read, for instance rewritten by its producer, is handled again on next pass
+                LOGGER.error("Error handling file '{}'", fileHandling.getKey(), e.getCause());
+                filesHandlingFailed.add(fileHandling.getKey());
+                filesSV.remove(fileHandling.getKey());
+                continue;
+            }
+            handledFiles.add(fileHandling.getKey());
+            filesHandled.add(fileHandling.getKey());
+        }
+        cgmesAssemblingLogger.flush();
+
+        if (incrementalListing) {
+            // the next incremental listing starts after the handled files, but before the files to be handled again.
+            // Without authorizations, no listed file has been validated and the watermark is kept
+            if (!authorizedTsos.isEmpty() && !authorizedBusinessProcesses.isEmpty()) {
+                watermark.advance(listedFilesInfo, filesHandlingFailed);
+                if (fullScan && filesHandlingFailed.isEmpty()) {
+                    watermark.setFullScanTime(listingTime);
+                }
+                cgmesAssemblingLogger.logListingWatermark(acquisitionServerLabel, watermark);
+            }
+
+            // woken SV files were listed by a previous incremental listing
+            for (String wokenAssembly : wokenAssemblies) {
+                if (!filesSV.containsKey(wokenAssembly)) {
+                    filesSV.put(wokenAssembly, acquisitionServer.getFileUrl(casesDirectory, wokenAssembly));
+                }
+            }
         }
+
+        List<CompletableFuture<Void>> imports = new ArrayList<>();
+        for (Map.Entry<String, String> fileInfo : filesSV.entrySet()) {
+            if (importedFiles.contains(fileInfo.getKey())) {
+                filesAlreadyImported.add(fileInfo.getKey());
+            } else if (pendingAssemblies.isPending(fileInfo.getKey()) && !wokenAssemblies.contains(fileInfo.getKey())) {
+                filesStillPending.add(fileInfo.getKey());
+            } else {
+                LOGGER.info("SV file '{}'...", fileInfo.getKey());
+                String fileNameSV = fileInfo.getKey();
+                // woken SV files and dependencies handled before are not part of an incremental listing
+                CgmesFileName cgmesFileNameSV = getCgmesFileName(fileNameSV, validFiles);
+                String uuid = dependencyGraph.getUuid(fileInfo.getKey());
+
+                // Identify available and missing file dependencies
+                Map<String, String> dependencies = dependencyGraph.getDependenciesClosure(uuid);
+                Map<CgmesFileName, String> availableFileDependencies = new LinkedHashMap<>();
+                Set<String> missingDependencies = new HashSet<>();
+                for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+                    String dependFileName = dependency.getValue();
+                    if (dependFileName != null) {
+                        String dependFileUrl = filesToAcquire.get(dependFileName);
+                        availableFileDependencies.put(getCgmesFileName(dependFileName, validFiles), dependFileUrl != null ? dependFileUrl : acquisitionServer.getFileUrl(casesDirectory, dependFileName));
+                    } else {
+                        missingDependencies.add(dependency.getKey());
+                    }
+                }
+
+                // An SV file with missing profiles waits for them, without any further evaluation until one is handled
+                if (!CgmesUtils.hasNeededProfiles(availableFileDependencies.keySet(), authorizedTsos, authorizedBusinessProcesses)) {
+                    LOGGER.error("{} file's dependencies are not resolved yet", fileNameSV);
+                    // the missing dependencies may be superseded versions, skipped by this listing, and then never handled
+                    List<String> supersededProfiles = latestVersions.getSupersededProfiles(cgmesFileNameSV);
+                    if (!supersededProfiles.isEmpty()) {
+                        LOGGER.warn("SV file '{}' misses dependencies {}, while superseded versions {} of its profiles were skipped: it is assembled only once a profile version it references is handled",
+                            fileNameSV, missingDependencies, supersededProfiles);
+                    }
+                    pendingAssemblies.add(fileNameSV, missingDependencies);
+                    cgmesAssemblingLogger.logAssemblyPending(fileNameSV, acquisitionServerLabel, new Date(), missingDependencies);
+                    continue;
+                }
+                if (pendingAssemblies.isPending(fileNameSV)) {
+                    pendingAssemblies.remove(fileNameSV);
+                    cgmesAssemblingLogger.logAssemblyResolved(fileNameSV, acquisitionServerLabel);
+                }
+
+                // The same SV file received from another origin is not imported again. Imports of this run not
+                // committed yet are in the imported uuids, committed ones are found by the logger.
+                if (!importedUuids.add(uuid)) {
+                    // being imported from another source: evaluated again on next run, once the import is logged
+                    LOGGER.info("SV file '{}' with uuid {} being imported from another origin", fileNameSV, uuid);
+                    continue;
+                }
+                if (cgmesAssemblingLogger.isImportedUuid(uuid)) {
+                    LOGGER.info("SV file '{}' with uuid {} already imported from another origin", fileNameSV, uuid);
+                    importedUuids.remove(uuid);
+                    cgmesAssemblingLogger.logFileImported(fileNameSV, acquisitionServerLabel, new Date());
+                    importedFiles.add(fileNameSV);
+                    filesAlreadyImported.add(fileNameSV);
+                    continue;
+                }
+
+                // Assembling profiles in parallel, each assembly reserving the listed size of its profiles in the memory budget
+                long estimatedSize = 0;
+                for (String dependFileUrl : availableFileDependencies.values()) {
+                    FileInfo dependFileInfo = dependFileUrl != null ? acquisitionServer.getListedFileInfo(dependFileUrl) : null;
+                    estimatedSize += dependFileInfo != null ? dependFileInfo.getSize() : 0;
+                }
+                imports.add(assemblyScheduler.submit(estimatedSize, () -> {
+                    TransferableFile assembledFile = CgmesUtils.prepareFinalZip(cgmesFileNameSV, availableFileDependencies,
+                        missingDependencies, acquisitionServer, cgmesBoundaryServiceRequester, strictMode,
+                        authorizedTsos, authorizedBusinessProcesses, memoryThreshold, assemblyPipeSize);
+                    if (assembledFile == null) {
+                        LOGGER.error("{} file's dependencies are not resolved yet", fileNameSV);
+                        importedUuids.remove(uuid);
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    LOGGER.debug("Case imports: concurrency limit {}, {} in flight, {} waiting", caseImportDispatcher.getLimiter().getLimit(),
+                        caseImportDispatcher.getLimiter().getInFlight(), caseImportDispatcher.getLimiter().getQueueDepth());
+                    // Import assembled file in the case server, the assembled file being kept until the import ends
+                    return caseImportDispatcher.importCase(assembledFile)
+                        .whenComplete((importOk, e) -> closeAssembledFile(assembledFile))
+                        .thenAccept(importOk -> {
+                            if (Boolean.TRUE.equals(importOk)) {
+                                filesSuccessfullyImported.add(fileNameSV);
+                                cgmesAssemblingLogger.logFileImported(fileNameSV, acquisitionServerLabel, new Date());
+                                importedFiles.add(fileNameSV);
+                                uuidsSuccessfullyImported.add(uuid);
+                            } else {
+                                importedUuids.remove(uuid);
+                                filesImportingFailed.add(fileNameSV);
+                            }
+                        });
+                }).whenComplete((v, e) -> {
+                    if (e != null) {
+                        importedUuids.remove(uuid);
+                    }
+                }));
+            }
+        }
+
+        CompletableFuture.allOf(imports.toArray(new CompletableFuture[0])).join();
+        cgmesAssemblingLogger.flush();
+        // committed imports are now found by the logger
+        importedUuids.removeAll(uuidsSuccessfullyImported);
+
+        LOGGER.info("===== JOB EXECUTION SUMMARY =====");
+        LOGGER.info("{} files already handled", filesAlreadyHandled.size());
+        LOGGER.info("{} files successfully handled", filesHandled.size());
+        filesHandled.forEach(f -> LOGGER.info("File '{}' successfully handled", f));
+        LOGGER.info("{} files handling failed, handled again on next pass", filesHandlingFailed.size());
+
+        LOGGER.info("{} files import succeeded", filesSuccessfullyImported.size());
+        filesSuccessfullyImported.forEach(f -> LOGGER.info("Assembled files with  '{}' file successfully imported !!", f));
+        LOGGER.info("{} files import failed", filesImportingFailed.size());
+        filesImportingFailed.forEach(f -> LOGGER.info("Assembled files with  '{}' file import failed !!", f));
+        LOGGER.info("{} files already imported", filesAlreadyImported.size());
+        filesAlreadyImported.forEach(f -> LOGGER.info("Assembled files with  '{}' file  already imported !!", f));
+        LOGGER.info("{} files still waiting for dependencies", filesStillPending.size());
+        if (fileContentCache != null) {
+            LOGGER.info("Files cache: {} hits, {} misses, {} evictions", fileContentCache.getHits(), fileContentCache.getMisses(), fileContentCache.getEvictions());
+        }
+        LOGGER.info("Case imports: {} attempts, {} retries, concurrency limit {}", caseImportDispatcher.getAttempts(),
+            caseImportDispatcher.getRetries(), caseImportDispatcher.getLimiter().getLimit());
+        LOGGER.info("Assemblies: {} bytes peak reserved memory", assemblyScheduler.getPeakReservedSize());
+        LOGGER.info("Boundaries cache: {} hits, {} misses, {} last boundaries hits", cgmesBoundaryServiceRequester.getCacheHits(),
+            cgmesBoundaryServiceRequester.getCacheMisses(), cgmesBoundaryServiceRequester.getLastBoundariesCacheHits());
+        LOGGER.info("=================================");
+        return filesHandled.size();
+    }
+
+    private boolean waitNextPass(List<AcquisitionSource> sources, long interval) throws IOException, InterruptedException {
+        LOGGER.debug("Next acquisition pass in {} ms", interval);
+        long deadline = System.currentTimeMillis() + interval;
+        long remaining = interval;
+        // waiting by steps to stop early, the next pass starting at once when changes are notified in a directory
+        while (!stopped && remaining > 0) {
+            long step = Math.max(1, Math.min(remaining, STOP_CHECK_INTERVAL) / sources.size());
+            for (AcquisitionSource source : sources) {
+                if (source.getProvider().awaitChanges(source.getCasesDirectory(), step)) {
+                    return !stopped;
+                }
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return !stopped;
+    }
+
+    /**
+     * Stop the daemon mode after the current pass
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private static AcquisitionProvider createAcquisitionProvider(ModuleConfig moduleConfigAcquisitionServer, int parallelism,
+                                                                 FileContentCache fileContentCache, long memoryThreshold) throws IOException {
+        String url = moduleConfigAcquisitionServer.getStringProperty("url");
+        // a locally mounted directory is read directly, and not through the remote servers sessions
+        if (url.startsWith("file:")) {
+            return new LocalAcquisitionServer(Paths.get(URI.create(url)),
+                moduleConfigAcquisitionServer.getLongProperty("settle-delay", LocalAcquisitionServer.DEFAULT_SETTLE_DELAY), fileContentCache, memoryThreshold);
+        }
+        return new AcquisitionServer(url, moduleConfigAcquisitionServer.getStringProperty("username"),
+            moduleConfigAcquisitionServer.getStringProperty("password"), parallelism, fileContentCache, memoryThreshold);
+    }
+
+    private static void closeAssembledFile(TransferableFile assembledFile) {
+        try {
+            assembledFile.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing assembled file {}", assembledFile.getName(), e);
+        }
+    }
+
+    // handled files names are valid profile names, parsed again only when they were not listed by this pass
+    private static CgmesFileName getCgmesFileName(String fileName, Map<String, CgmesFileName> validFiles) {
+        CgmesFileName cgmesFileName = validFiles.get(fileName);
+        return cgmesFileName != null ? cgmesFileName : CgmesFileName.parse(fileName);
+    }
+
+    private static BoundaryStore createBoundaryStore(ModuleConfig moduleConfigCgmesBoundaryServer) {
+        Optional<Path> storeDirectory = moduleConfigCgmesBoundaryServer.getOptionalPathProperty("store-directory");
+        if (storeDirectory.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BoundaryStore(storeDirectory.get(), moduleConfigCgmesBoundaryServer.getLongProperty("store-max-size", BoundaryStore.DEFAULT_MAX_SIZE));
+        } catch (IOException e) {
+            // boundaries are then only downloaded
+            LOGGER.warn("Boundary store {} cannot be opened", storeDirectory.get(), e);
+            return null;
+        }
+    }
+
+    private static FullModel handleFile(String fileName, String fileUrl, AcquisitionProvider acquisitionServer,
+                                   CgmesAssemblingLogger cgmesAssemblingLogger, String acquisitionServerLabel) throws IOException {
+        LOGGER.info("Handling file '{}'...", fileName);
+        // Only the file header is downloaded
+        FullModel fullModel = acquisitionServer.getFullModel(fileUrl);
+        cgmesAssemblingLogger.logFileHandled(fileName, fullModel.getId(), acquisitionServerLabel, new Date(), fullModel.getDependentOn());
+        return fullModel;
     }
 }
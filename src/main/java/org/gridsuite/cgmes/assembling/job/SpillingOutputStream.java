@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Output stream kept in memory up to a size threshold, and spilled to a temporary file beyond.
+ *
+ * @author agent <agent at local>
+ */
+class SpillingOutputStream extends OutputStream {
+
+    private final long memoryThreshold;
+
+    private ByteArrayOutputStream memoryStream = new ByteArrayOutputStream();
+
+    private Path file;
+
+    private OutputStream fileStream;
+
+    SpillingOutputStream(long memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    private OutputStream getStream(int length) throws IOException {
+        if (fileStream == null && memoryStream.size() + (long) length > memoryThreshold) {
+            file = Files.createTempFile("cgmes-assembling", ".tmp");
+            fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+            memoryStream.writeTo(fileStream);
+            memoryStream = null;
+        }
+        return fileStream != null ? fileStream : memoryStream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        getStream(1).write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        getStream(len).write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileStream != null) {
+            fileStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileStream != null) {
+            fileStream.close();
+        }
+    }
+
+    /**
+     * Close the stream and give its content as a transferable file, owning the temporary file if any
+     */
+    TransferableFile toTransferableFile(String fileName) throws IOException {
+        close();
+        return file != null ? TransferableFile.ofTemporaryPath(fileName, file) : new TransferableFile(fileName, memoryStream.toByteArray());
+    }
+
+    /**
+     * Close the stream and delete the temporary file if any
+     */
+    void discard() throws IOException {
+        close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
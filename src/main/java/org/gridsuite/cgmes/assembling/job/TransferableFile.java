@@ -6,25 +6,545 @@
  */
 package org.gridsuite.cgmes.assembling.job;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
+ * A named file content, which can be backed by a heap byte array, a file, a memory mapped file or a writer producing
+ * it on demand. Content is meant to be read as a stream, {@link #getData()} fully loads it in memory.
+ * Closing the file deletes its backing file when it is a temporary one.
+ *
  * @author Nicolas Noir <nicolas.noir at rte-france.com>
  */
-public class TransferableFile {
+public class TransferableFile implements AutoCloseable {
+
+    interface Content {
+
+        long getSize() throws IOException;
+
+        InputStream getInputStream() throws IOException;
 
-    private final byte[] fileData;
+        default SeekableByteChannel newChannel() throws IOException {
+            try (InputStream is = getInputStream()) {
+                return new ByteBufferChannel(ByteBuffer.wrap(is.readAllBytes()));
+            }
+        }
+
+        default HttpRequest.BodyPublisher getBodyPublisher() throws IOException {
+            return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }), getSize());
+        }
+
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * Producer of a file content
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        void write(OutputStream outputStream) throws IOException;
+    }
 
     private final String fileName;
 
+    private final Content content;
+
     public TransferableFile(String fileName, byte[] fileData) {
+        this(fileName, new HeapContent(fileData));
+    }
+
+    TransferableFile(String fileName, Content content) {
         this.fileName = fileName;
-        this.fileData = fileData;
+        this.content = content;
+    }
+
+    /**
+     * Create a file backed by an existing file, which is not deleted on close
+     */
+    public static TransferableFile ofPath(String fileName, Path path) {
+        return new TransferableFile(fileName, new PathContent(path, false));
+    }
+
+    /**
+     * Create a file backed by a temporary file, which is deleted on close
+     */
+    public static TransferableFile ofTemporaryPath(String fileName, Path path) {
+        return new TransferableFile(fileName, new PathContent(path, true));
+    }
+
+    /**
+     * Create a file backed by a read only memory mapping of an existing file. As the mapping stays valid once
+     * created, the file can be deleted while this transferable file is still in use.
+     */
+    public static TransferableFile ofMappedPath(String fileName, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                // too big for a single mapping
+                return ofPath(fileName, path);
+            }
+            return new TransferableFile(fileName, new MappedContent(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+
+    /**
+     * Create a file whose content is produced by a writer each time it is read. The writer runs in its own thread and
+     * feeds the reader through a pipe bounded to the given size, so that the content is never held as a whole and
+     * its production overlaps its consumption. Its size is unknown. As the content is produced again by each read,
+     * reading it again, for instance to retry an upload, has the whole production cost again.
+     */
+    public static TransferableFile ofWriter(String fileName, ContentWriter writer, int pipeSize) {
+        return new TransferableFile(fileName, new PipedContent(fileName, writer, pipeSize));
+    }
+
+    /**
+     * Read a stream content: it is kept in memory up to the given threshold, and spilled to a temporary file beyond
+     */
+    public static TransferableFile read(String fileName, InputStream inputStream, long memoryThreshold) throws IOException {
+        SpillingOutputStream outputStream = new SpillingOutputStream(memoryThreshold);
+        try {
+            inputStream.transferTo(outputStream);
+            return outputStream.toTransferableFile(fileName);
+        } catch (IOException e) {
+            outputStream.discard();
+            throw e;
+        }
     }
 
     public String getName() {
         return fileName;
     }
 
+    /**
+     * Get the content size, or -1 if it is unknown before being read
+     */
+    public long getSize() throws IOException {
+        return content.getSize();
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return content.getInputStream();
+    }
+
+    /**
+     * Get a channel reading the file content at any position
+     */
+    public SeekableByteChannel newChannel() throws IOException {
+        return content.newChannel();
+    }
+
+    /**
+     * Get a request body publisher streaming the file content, so that it is never fully loaded in memory
+     */
+    public HttpRequest.BodyPublisher getBodyPublisher() throws IOException {
+        return content.getBodyPublisher();
+    }
+
     public byte[] getData() {
-        return fileData;
+        if (content instanceof HeapContent) {
+            return ((HeapContent) content).data;
+        }
+        try (InputStream is = content.getInputStream()) {
+            return is.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+
+    private static final class HeapContent implements Content {
+
+        private final byte[] data;
+
+        private HeapContent(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getSize() {
+            return data.length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public SeekableByteChannel newChannel() {
+            return new ByteBufferChannel(ByteBuffer.wrap(data));
+        }
+
+        @Override
+        public HttpRequest.BodyPublisher getBodyPublisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(data);
+        }
+    }
+
+    private static final class PathContent implements Content {
+
+        private final Path path;
+
+        private final boolean temporary;
+
+        private PathContent(Path path, boolean temporary) {
+            this.path = path;
+            this.temporary = temporary;
+        }
+
+        @Override
+        public long getSize() throws IOException {
+            return Files.size(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public SeekableByteChannel newChannel() throws IOException {
+            return Files.newByteChannel(path);
+        }
+
+        @Override
+        public HttpRequest.BodyPublisher getBodyPublisher() throws IOException {
+            return HttpRequest.BodyPublishers.ofFile(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class MappedContent implements Content {
+
+        private final ByteBuffer buffer;
+
+        private MappedContent(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long getSize() {
+            return buffer.capacity();
+        }
+
+        @Override
+        public SeekableByteChannel newChannel() {
+            return new ByteBufferChannel(buffer.duplicate());
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer readBuffer = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return readBuffer.hasRemaining() ? readBuffer.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!readBuffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, readBuffer.remaining());
+                    readBuffer.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return readBuffer.remaining();
+                }
+            };
+        }
+    }
+
+    private static final class ByteBufferChannel implements SeekableByteChannel {
+
+        private final ByteBuffer buffer;
+
+        private boolean open = true;
+
+        private ByteBufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            ByteBuffer slice = buffer.slice();
+            slice.limit(n);
+            dst.put(slice);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() {
+            return buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) {
+            buffer.position((int) Math.min(newPosition, buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return buffer.limit();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    private static final class PipedContent implements Content {
+
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        // read and write ends poll each other state at this period, so that none of them blocks forever
+        private static final long POLL_PERIOD = 100;
+
+        private static final byte[] END_OF_CONTENT = new byte[0];
+
+        private final String fileName;
+
+        private final ContentWriter writer;
+
+        private final int pipeSize;
+
+        private PipedContent(String fileName, ContentWriter writer, int pipeSize) {
+            this.fileName = fileName;
+            this.writer = writer;
+            this.pipeSize = pipeSize;
+        }
+
+        @Override
+        public long getSize() {
+            return -1;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            Pipe pipe = new Pipe(Math.max(1, pipeSize / CHUNK_SIZE));
+            Thread writerThread = new Thread(() -> {
+                try {
+                    OutputStream os = pipe.getOutputStream();
+                    writer.write(os);
+                    os.close();
+                    // end of content is only sent on success, even if the writer closed the stream on failure
+                    pipe.put(END_OF_CONTENT);
+                } catch (IOException | RuntimeException e) {
+                    pipe.fail(e);
+                }
+            }, "pipe-writer-" + fileName);
+            writerThread.setDaemon(true);
+            writerThread.start();
+            return pipe.getInputStream();
+        }
+
+        @Override
+        public HttpRequest.BodyPublisher getBodyPublisher() {
+            return HttpRequest.BodyPublishers.ofInputStream(this::getInputStream);
+        }
+    }
+
+    /**
+     * Bounded pipe of chunks between one writer thread and one reader thread. A writer failure is raised to the reader
+     * instead of a silent end of content, and closing the read end stops the writer.
+     */
+    private static final class Pipe {
+
+        private final BlockingQueue<byte[]> chunks;
+
+        private volatile Exception writerFailure;
+
+        private volatile boolean readerClosed;
+
+        private Pipe(int capacity) {
+            chunks = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void put(byte[] chunk) throws IOException {
+            try {
+                while (!chunks.offer(chunk, PipedContent.POLL_PERIOD, TimeUnit.MILLISECONDS)) {
+                    if (readerClosed) {
+                        throw new IOException("Pipe closed by reader");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        private void fail(Exception e) {
+            writerFailure = e;
+            if (!readerClosed) {
+                try {
+                    put(PipedContent.END_OF_CONTENT);
+                } catch (IOException ignored) {
+                    // reader is gone
+                }
+            }
+        }
+
+        private OutputStream getOutputStream() {
+            return new OutputStream() {
+                private final byte[] buffer = new byte[PipedContent.CHUNK_SIZE];
+                private int count;
+                private boolean closed;
+
+                private void flushChunk() throws IOException {
+                    if (count > 0) {
+                        put(Arrays.copyOf(buffer, count));
+                        count = 0;
+                    }
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (count == buffer.length) {
+                        flushChunk();
+                    }
+                    buffer[count++] = (byte) b;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    while (len > 0) {
+                        if (count == buffer.length) {
+                            flushChunk();
+                        }
+                        int n = Math.min(len, buffer.length - count);
+                        System.arraycopy(b, off, buffer, count, n);
+                        count += n;
+                        off += n;
+                        len -= n;
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        flushChunk();
+                    }
+                }
+            };
+        }
+
+        private InputStream getInputStream() {
+            return new InputStream() {
+                private byte[] chunk = new byte[0];
+                private int position;
+                private boolean ended;
+
+                private boolean nextChunk() throws IOException {
+                    while (position == chunk.length) {
+                        if (ended) {
+                            return false;
+                        }
+                        try {
+                            chunk = chunks.take();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException();
+                        }
+                        position = 0;
+                        if (chunk == PipedContent.END_OF_CONTENT) {
+                            ended = true;
+                            if (writerFailure != null) {
+                                throw new IOException("Content writer failed", writerFailure);
+                            }
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public int read() throws IOException {
+                    return nextChunk() ? chunk[position++] & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!nextChunk()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, chunk.length - position);
+                    System.arraycopy(chunk, position, b, off, n);
+                    position += n;
+                    return n;
+                }
+
+                @Override
+                public void close() {
+                    readerClosed = true;
+                    // unblock the writer waiting for room
+                    chunks.clear();
+                }
+            };
+        }
     }
 }
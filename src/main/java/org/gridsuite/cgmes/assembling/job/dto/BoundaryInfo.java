@@ -6,19 +6,43 @@
  */
 package org.gridsuite.cgmes.assembling.job.dto;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+
 /**
+ * Boundary instances are shared by all their users, so their content cannot be modified: it is copied on creation,
+ * and only exposed as a copy or through a read-only buffer.
+ *
  * @author Franck Lecuyer <franck.lecuyer at rte-france.com>
  */
 
-@AllArgsConstructor
 @Getter
 public class BoundaryInfo {
-    private String id;
+    private final String id;
+
+    private final String filename;
+
+    private final byte[] boundary;
+
+    public BoundaryInfo(String id, String filename, byte[] boundary) {
+        this.id = id;
+        this.filename = filename;
+        this.boundary = boundary.clone();
+    }
+
+    public byte[] getBoundary() {
+        return boundary.clone();
+    }
 
-    private String filename;
+    /**
+     * Get a read-only view of the boundary content, which is not copied
+     */
+    public ByteBuffer getBoundaryBuffer() {
+        return ByteBuffer.wrap(boundary).asReadOnlyBuffer();
+    }
 
-    private byte[] boundary;
+    public int getSize() {
+        return boundary.length;
+    }
 }
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.cgmes.assembling.job.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Snapshot of a file attributes, as returned by one directory listing.
+ *
+ * @author agent <agent at local>
+ */
+
+@AllArgsConstructor
+@Getter
+public class FileInfo {
+    private String name;
+
+    private String url;
+
+    private long size;
+
+    private long lastModifiedTime;
+}
@@ -7,9 +7,29 @@
 package org.gridsuite.cgmes.assembling.job;
 
 import com.github.stefanbirkner.fakesftpserver.rule.FakeSftpServerRule;
+import com.powsybl.cgmes.model.FullModel;
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.commons.config.InMemoryModuleConfigRepository;
+import com.powsybl.commons.config.MapModuleConfig;
+import com.powsybl.commons.config.ModuleConfig;
+import com.powsybl.commons.config.PlatformConfig;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.auth.StaticUserAuthenticator;
+import org.apache.commons.vfs2.impl.DecoratedFileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.sftp.SftpFileSystemConfigBuilder;
 import org.gridsuite.cgmes.assembling.job.dto.BoundaryInfo;
+import org.gridsuite.cgmes.assembling.job.dto.FileInfo;
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.mockftpserver.fake.FakeFtpServer;
@@ -20,6 +40,8 @@ import org.mockftpserver.fake.filesystem.FileSystem;
 import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
 import org.mockserver.junit.MockServerRule;
 import org.mockserver.matchers.Times;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
@@ -27,12 +49,35 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.sql.DataSource;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.*;
@@ -48,6 +93,8 @@ import static org.mockserver.model.HttpResponse.response;
 @ContextConfiguration(classes = {ProfilesAcquisitionJob.class})
 public class ProfilesAcquisitionJobTest {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfilesAcquisitionJobTest.class);
+
     @Autowired
     private DataSource dataSource;
 
@@ -82,6 +129,184 @@ public class ProfilesAcquisitionJobTest {
         }
     }
 
+    @Test
+    public void testHandledAndImportedFileNames() {
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            cgmesAssemblingLogger.logFileAvailable("testFile1.iidm", "uuid1", "my_sftp_server", new Date());
+            cgmesAssemblingLogger.logFileAvailable("testFile2.iidm", "uuid2", "my_sftp_server", new Date());
+            cgmesAssemblingLogger.logFileAvailable("testFile3.iidm", "uuid3", "other_sftp_server", new Date());
+            cgmesAssemblingLogger.logFileImported("testFile1.iidm", "my_sftp_server", new Date());
+
+            FileNameSet handledFiles = cgmesAssemblingLogger.getHandledFileNames("my_sftp_server");
+            assertEquals(2, handledFiles.size());
+            assertTrue(handledFiles.contains("testFile1.iidm"));
+            assertTrue(handledFiles.contains("testFile2.iidm"));
+            assertFalse(handledFiles.contains("testFile3.iidm"));
+
+            FileNameSet importedFiles = cgmesAssemblingLogger.getImportedFileNames("my_sftp_server");
+            assertEquals(1, importedFiles.size());
+            assertTrue(importedFiles.contains("testFile1.iidm"));
+            assertFalse(importedFiles.contains("testFile2.iidm"));
+            importedFiles.add("testFile2.iidm");
+            assertTrue(importedFiles.contains("testFile2.iidm"));
+        }
+
+        // large history, with Bloom filter
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < FileNameSet.BLOOM_FILTER_MIN_SIZE; i++) {
+            names.add("20191106T0930Z_1D_XX_SV_" + i + ".zip");
+        }
+        FileNameSet fileNames = new FileNameSet(names);
+        names.forEach(name -> assertTrue(fileNames.contains(name)));
+        assertFalse(fileNames.contains("20191106T0930Z_1D_YY_SV_001.zip"));
+    }
+
+    @Test
+    public void testBatchedLogging() {
+        try (CgmesAssemblingLogger writer = new CgmesAssemblingLogger(dataSource, 10, 60000);
+             CgmesAssemblingLogger reader = new CgmesAssemblingLogger(dataSource)) {
+            // handled file and its dependencies are committed together
+            writer.logFileHandled("testFile.iidm", "uuid", "my_sftp_server", new Date(), Arrays.asList("uuid1", "uuid2"));
+            assertFalse(reader.isHandledFile("testFile.iidm", "my_sftp_server"));
+            assertTrue(reader.getDependencies("uuid").isEmpty());
+            writer.flush();
+            assertTrue(reader.isHandledFile("testFile.iidm", "my_sftp_server"));
+            assertEquals(2, reader.getDependencies("uuid").size());
+
+            // group is committed when it reaches the batch size
+            for (int i = 0; i < 9; i++) {
+                writer.logFileImported("testFile" + i + ".iidm", "my_sftp_server", new Date());
+            }
+            assertFalse(reader.isImportedFile("testFile0.iidm", "my_sftp_server"));
+            writer.logFileImported("testFile9.iidm", "my_sftp_server", new Date());
+            assertTrue(reader.isImportedFile("testFile0.iidm", "my_sftp_server"));
+            assertTrue(reader.isImportedFile("testFile9.iidm", "my_sftp_server"));
+        }
+    }
+
+    @Test
+    public void testDependenciesClosure() {
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            // diamond with a cycle back to the root: each uuid must be reached only once
+            cgmesAssemblingLogger.logFileHandled("A.zip", "uuidA", "my_sftp_server", new Date(), Arrays.asList("uuidB", "uuidC"));
+            cgmesAssemblingLogger.logFileHandled("B.zip", "uuidB", "my_sftp_server", new Date(), Arrays.asList("uuidD"));
+            cgmesAssemblingLogger.logFileDependencies("uuidC", Arrays.asList("uuidD"));
+            cgmesAssemblingLogger.logFileHandled("D.zip", "uuidD", "my_sftp_server", new Date(), Arrays.asList("uuidA"));
+
+            Map<String, String> closure = cgmesAssemblingLogger.getDependenciesClosure("uuidA", "my_sftp_server");
+            assertEquals(4, closure.size());
+            assertEquals("A.zip", closure.get("uuidA"));
+            assertEquals("B.zip", closure.get("uuidB"));
+            assertTrue(closure.containsKey("uuidC"));
+            assertNull(closure.get("uuidC"));
+            assertEquals("D.zip", closure.get("uuidD"));
+
+            // same closure from the other origin, but no file handled from it
+            closure = cgmesAssemblingLogger.getDependenciesClosure("uuidA", "my_other_server");
+            assertEquals(4, closure.size());
+            assertTrue(closure.values().stream().allMatch(Objects::isNull));
+
+            List<String> uuids = CgmesUtils.getDependenciesTreeUuids("uuidA", cgmesAssemblingLogger);
+            assertEquals(Arrays.asList("uuidA", "uuidB", "uuidC", "uuidD"), uuids);
+        }
+    }
+
+    @Test
+    public void testDependencyGraphIndex() {
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            cgmesAssemblingLogger.logFileHandled("SV.zip", "uuidSV", "my_sftp_server", new Date(), Arrays.asList("uuidTP", "uuidSSH"));
+            cgmesAssemblingLogger.logFileHandled("TP.zip", "uuidTP", "my_sftp_server", new Date(), Arrays.asList("uuidEQ"));
+            cgmesAssemblingLogger.logFileHandled("SSH.zip", "uuidSSH", "my_sftp_server", new Date(), Arrays.asList("uuidEQ"));
+            cgmesAssemblingLogger.logFileHandled("EQ.zip", "uuidEQ", "my_other_server", new Date(), Arrays.asList("uuidBD"));
+
+            DependencyGraphIndex dependencyGraph = cgmesAssemblingLogger.getDependencyGraph("my_sftp_server");
+            assertEquals(5, dependencyGraph.size());
+            assertEquals("uuidSV", dependencyGraph.getUuid("SV.zip"));
+            assertNull(dependencyGraph.getUuid("EQ.zip"));
+
+            Map<String, String> closure = dependencyGraph.getDependenciesClosure("uuidSV");
+            assertEquals(Arrays.asList("uuidSV", "uuidTP", "uuidSSH", "uuidEQ", "uuidBD"), new ArrayList<>(closure.keySet()));
+            assertEquals("TP.zip", closure.get("uuidTP"));
+            assertNull(closure.get("uuidEQ"));
+            assertEquals(Set.of("uuidTP", "uuidSSH", "uuidSV"), dependencyGraph.getDependents("uuidEQ"));
+
+            // index is updated when new files are handled, and matches the database closure
+            dependencyGraph.addFile("EQ.zip", "uuidEQ", Arrays.asList("uuidBD"));
+            cgmesAssemblingLogger.logFileHandled("EQ.zip", "uuidEQ", "my_sftp_server", new Date(), Collections.emptyList());
+            assertEquals("EQ.zip", dependencyGraph.getDependenciesClosure("uuidSV").get("uuidEQ"));
+            assertEquals(cgmesAssemblingLogger.getDependenciesClosure("uuidSV", "my_sftp_server"), dependencyGraph.getDependenciesClosure("uuidSV"));
+            assertEquals(Set.of("uuidTP", "uuidSSH", "uuidSV"), dependencyGraph.getDependents("uuidEQ"));
+            assertEquals(Set.of("uuidEQ", "uuidTP", "uuidSSH", "uuidSV"), dependencyGraph.getDependents("uuidBD"));
+            assertTrue(dependencyGraph.getDependents("uuidSV").isEmpty());
+
+            // reverse dependencies follow new edges, and a cycle ends on the file itself, which is not its own dependent
+            dependencyGraph.addFile("BD.zip", "uuidBD", Arrays.asList("uuidSV"));
+            assertEquals(Set.of("uuidBD", "uuidEQ", "uuidTP", "uuidSSH"), dependencyGraph.getDependents("uuidSV"));
+            assertEquals(Set.of("uuidEQ", "uuidTP", "uuidSSH", "uuidSV"), dependencyGraph.getDependents("uuidBD"));
+
+            // unknown file
+            assertEquals(Collections.singletonMap("uuidXX", null), dependencyGraph.getDependenciesClosure("uuidXX"));
+            assertTrue(dependencyGraph.getDependents("uuidXX").isEmpty());
+        }
+    }
+
+    @Test
+    public void testPendingAssemblies() {
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            cgmesAssemblingLogger.logAssemblyPending("sv1.zip", "my_sftp_server", new Date(), List.of("ssh1", "tp"));
+            cgmesAssemblingLogger.logAssemblyPending("sv2.zip", "my_sftp_server", new Date(), List.of("ssh2", "tp"));
+            cgmesAssemblingLogger.logAssemblyPending("sv3.zip", "other_server", new Date(), List.of("tp"));
+
+            PendingAssemblyIndex pendingAssemblies = cgmesAssemblingLogger.getPendingAssemblies("my_sftp_server");
+            assertEquals(2, pendingAssemblies.size());
+            assertTrue(pendingAssemblies.isPending("sv1.zip"));
+            assertFalse(pendingAssemblies.isPending("sv3.zip"));
+            assertEquals(Set.of("ssh1", "tp"), pendingAssemblies.getMissingUuids("sv1.zip"));
+            assertEquals(Set.of("sv1.zip", "sv2.zip"), pendingAssemblies.getWaitingFileNames("tp"));
+            assertEquals(Set.of("sv2.zip"), pendingAssemblies.getWaitingFileNames("ssh2"));
+            assertTrue(pendingAssemblies.getWaitingFileNames("eq").isEmpty());
+
+            // missing dependencies are replaced, and resolved assemblies are no longer pending
+            cgmesAssemblingLogger.logAssemblyPending("sv1.zip", "my_sftp_server", new Date(), List.of("ssh1"));
+            cgmesAssemblingLogger.logAssemblyResolved("sv2.zip", "my_sftp_server");
+            pendingAssemblies = cgmesAssemblingLogger.getPendingAssemblies("my_sftp_server");
+            assertEquals(1, pendingAssemblies.size());
+            assertEquals(Set.of("ssh1"), pendingAssemblies.getMissingUuids("sv1.zip"));
+            assertTrue(pendingAssemblies.getWaitingFileNames("tp").isEmpty());
+
+            pendingAssemblies.add("sv1.zip", List.of("tp"));
+            assertTrue(pendingAssemblies.getWaitingFileNames("ssh1").isEmpty());
+            assertEquals(Set.of("sv1.zip"), pendingAssemblies.getWaitingFileNames("tp"));
+            pendingAssemblies.remove("sv1.zip");
+            assertFalse(pendingAssemblies.isPending("sv1.zip"));
+            assertEquals(0, pendingAssemblies.size());
+        }
+    }
+
+    @Test
+    public void testCrossOriginDeduplication() {
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource, 10, 60000)) {
+            assertFalse(cgmesAssemblingLogger.logFileHandled("eq.zip", "eq", "primary", new Date(), List.of("eq_bd")));
+            // linked while the first file is still in the pending batch, then once committed
+            assertTrue(cgmesAssemblingLogger.logFileHandled("eq.zip", "eq", "backup", new Date(), List.of("eq_bd")));
+            cgmesAssemblingLogger.flush();
+            assertTrue(cgmesAssemblingLogger.logFileHandled("eq_copy.zip", "eq", "other", new Date(), List.of("eq_bd")));
+            assertFalse(cgmesAssemblingLogger.logFileHandled("sv.zip", "sv", "backup", new Date(), List.of("eq")));
+            assertEquals(List.of("eq_bd"), cgmesAssemblingLogger.getDependencies("eq"));
+            assertEquals("eq.zip", cgmesAssemblingLogger.getFileNameByUuid("eq", "backup"));
+            assertEquals("eq_copy.zip", cgmesAssemblingLogger.getFileNameByUuid("eq", "other"));
+
+            assertFalse(cgmesAssemblingLogger.isImportedUuid("sv"));
+            cgmesAssemblingLogger.logFileHandled("sv.zip", "sv", "primary", new Date(), List.of("eq"));
+            cgmesAssemblingLogger.logFileImported("sv.zip", "primary", new Date());
+            // pending imports are not flushed by the lookup
+            assertFalse(cgmesAssemblingLogger.isImportedUuid("sv"));
+            cgmesAssemblingLogger.flush();
+            assertTrue(cgmesAssemblingLogger.isImportedUuid("sv"));
+            assertFalse(cgmesAssemblingLogger.isImportedUuid("eq"));
+        }
+    }
+
     @Test
     public void testFtpAcquisition() throws IOException {
         FileSystem fileSystem = new UnixFakeFileSystem();
@@ -129,6 +354,218 @@ public class ProfilesAcquisitionJobTest {
         assertFalse(caseImportServiceRequester.importCase(new TransferableFile("case.iidm", fileData.getBytes(UTF_8))));
     }
 
+    @Test
+    public void testCaseImportRequesterStreaming() throws IOException, InterruptedException {
+        CaseImportServiceRequester caseImportServiceRequester = new CaseImportServiceRequester("http://localhost:45385/");
+        Path caseFile = Files.createTempFile("case", ".iidm");
+        Files.writeString(caseFile, "Case file content streamed from disk");
+
+        // file backed content is streamed, and its size is known
+        expectRequestCase("/v1/cases/public", 200);
+        try (TransferableFile file = TransferableFile.ofTemporaryPath("case.iidm", caseFile)) {
+            assertEquals(36, file.getBodyPublisher().contentLength());
+            assertTrue(caseImportServiceRequester.importCase(file));
+        }
+        assertFalse(Files.exists(caseFile));
+
+        // spilled content is streamed too
+        expectRequestCase("/v1/cases/public", 200);
+        try (TransferableFile file = TransferableFile.read("case2.iidm", new ByteArrayInputStream("Spilled case file content".getBytes(UTF_8)), 4)) {
+            assertTrue(caseImportServiceRequester.importCase(file));
+        }
+
+        org.mockserver.model.HttpRequest[] requests = mockServer.getClient().retrieveRecordedRequests(request().withPath("/v1/cases/public"));
+        assertEquals(2, requests.length);
+        assertTrue(requests[0].getBodyAsString().contains("filename=\"case.iidm\""));
+        assertTrue(requests[0].getBodyAsString().contains("Case file content streamed from disk"));
+        assertTrue(requests[1].getBodyAsString().contains("Spilled case file content"));
+    }
+
+    @Test
+    public void testPipelinedFile() throws IOException, InterruptedException {
+        byte[] content = new byte[300000];
+        new Random(0).nextBytes(content);
+        TransferableFile.ContentWriter writer = os -> {
+            for (int i = 0; i < content.length; i += 1000) {
+                os.write(content, i, 1000);
+            }
+        };
+
+        // content is produced again on each read, through a pipe smaller than the content
+        try (TransferableFile file = TransferableFile.ofWriter("case.zip", writer, 64 * 1024)) {
+            assertEquals(-1, file.getSize());
+            assertArrayEquals(content, file.getData());
+            assertArrayEquals(content, file.getData());
+
+            expectRequestCase("/v1/cases/public", 200);
+            assertTrue(new CaseImportServiceRequester("http://localhost:45385/").importCase(file));
+        }
+
+        // writer failure is raised to the reader, instead of a truncated content
+        TransferableFile.ContentWriter failingWriter = os -> {
+            os.write(content, 0, 100000);
+            throw new IOException("Assembly failed");
+        };
+        try (TransferableFile file = TransferableFile.ofWriter("case.zip", failingWriter, 64 * 1024);
+             InputStream is = file.getInputStream()) {
+            IOException e = assertThrows(IOException.class, is::readAllBytes);
+            assertEquals("Assembly failed", e.getCause().getMessage());
+        }
+
+        // closing the reader stops the writer
+        AtomicInteger writerErrors = new AtomicInteger();
+        TransferableFile.ContentWriter endlessWriter = os -> {
+            try {
+                while (true) {
+                    os.write(content);
+                }
+            } catch (IOException e) {
+                writerErrors.incrementAndGet();
+                throw e;
+            }
+        };
+        try (TransferableFile file = TransferableFile.ofWriter("case.zip", endlessWriter, 64 * 1024)) {
+            InputStream is = file.getInputStream();
+            assertEquals(1000, is.readNBytes(1000).length);
+            is.close();
+            long start = System.currentTimeMillis();
+            while (writerErrors.get() == 0 && System.currentTimeMillis() - start < 5000) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, writerErrors.get());
+        }
+    }
+
+    @Test
+    public void testCaseImportDispatcher() throws Exception {
+        CaseImportDispatcher caseImportDispatcher = new CaseImportDispatcher(new CaseImportServiceRequester("http://localhost:45385/"), 1, 2, 10);
+        TransferableFile caseFile = new TransferableFile("case.iidm", "Case file content".getBytes(UTF_8));
+
+        // server errors are retried
+        expectRequestCase("/v1/cases/public", 500);
+        expectRequestCase("/v1/cases/public", 503);
+        expectRequestCase("/v1/cases/public", 200);
+        assertTrue(caseImportDispatcher.importCase(caseFile).get());
+        assertEquals(3, caseImportDispatcher.getAttempts());
+        assertEquals(2, caseImportDispatcher.getRetries());
+
+        // until max retries is reached
+        mockServer.getClient().clear(request());
+        expectRequestCase("/v1/cases/public", 500);
+        expectRequestCase("/v1/cases/public", 500);
+        expectRequestCase("/v1/cases/public", 500);
+        assertFalse(caseImportDispatcher.importCase(caseFile).get());
+        assertEquals(6, caseImportDispatcher.getAttempts());
+
+        // client errors are not retried
+        mockServer.getClient().clear(request());
+        expectRequestCase("/v1/cases/public", 400);
+        assertFalse(caseImportDispatcher.importCase(caseFile).get());
+        assertEquals(7, caseImportDispatcher.getAttempts());
+        assertEquals(4, caseImportDispatcher.getRetries());
+    }
+
+    @Test
+    public void testCaseImportDispatcherLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 60000);
+        CaseImportDispatcher caseImportDispatcher = new CaseImportDispatcher(new CaseImportServiceRequester("http://localhost:45385/"), limiter, 0, 10);
+        TransferableFile caseFile = new TransferableFile("case.iidm", "Case file content".getBytes(UTF_8));
+
+        // a fast import while the limit is reached lets the limit grow
+        expectRequestCase("/v1/cases/public", 200);
+        assertTrue(caseImportDispatcher.importCase(caseFile).get());
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        // a case server error shrinks it back
+        expectRequestCase("/v1/cases/public", 503);
+        assertFalse(caseImportDispatcher.importCase(caseFile).get());
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyLimiter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 1000);
+        assertEquals(1, limiter.getLimit());
+
+        // limit grows additively while it is reached and latency is low
+        for (int i = 0; i < 20; i++) {
+            int permits = limiter.getLimit();
+            for (int j = 0; j < permits; j++) {
+                limiter.acquire();
+            }
+            limiter.onSample(10, false);
+            for (int j = 0; j < permits; j++) {
+                limiter.release();
+            }
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // and is halved on errors or high latency
+        limiter.onSample(10, true);
+        assertEquals(2, limiter.getLimit());
+        limiter.onSample(5000, false);
+        assertEquals(1, limiter.getLimit());
+        limiter.onSample(10, true);
+        assertEquals(1, limiter.getLimit());
+
+        // acquisitions beyond the limit wait in queue
+        limiter.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiting = executor.submit(() -> {
+                limiter.acquire();
+                return null;
+            });
+            long start = System.currentTimeMillis();
+            while (limiter.getQueueDepth() == 0 && System.currentTimeMillis() - start < 5000) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, limiter.getQueueDepth());
+            assertEquals(1, limiter.getInFlight());
+            limiter.release();
+            waiting.get();
+            assertEquals(0, limiter.getQueueDepth());
+            assertEquals(1, limiter.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAssemblyScheduler() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AssemblyScheduler.AssemblyTask task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        };
+
+        // with tasks of 6 KB, a 16 KB budget lets only two of them run at a time, whatever the parallelism
+        try (AssemblyScheduler scheduler = new AssemblyScheduler(4, 16 * 1024)) {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(scheduler.submit(6 * 1024, task));
+            }
+            // a task estimated beyond the whole budget runs alone
+            tasks.add(scheduler.submit(1024 * 1024, task));
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get();
+            assertEquals(2, maxRunning.get());
+            assertEquals(16 * 1024, scheduler.getPeakReservedSize());
+            assertEquals(0, scheduler.getReservedSize());
+
+            // budget is given back on failure
+            CompletableFuture<Void> failing = scheduler.submit(16 * 1024, () -> {
+                throw new IOException("Assembly failed");
+            });
+            assertThrows(ExecutionException.class, failing::get);
+            assertEquals(0, scheduler.getReservedSize());
+        }
+    }
+
     @Test
     public void testCgmesBoundaryRequester() {
         CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester = new CgmesBoundaryServiceRequester("http://localhost:55487/");
@@ -163,6 +600,126 @@ public class ProfilesAcquisitionJobTest {
         assertTrue(cgmesBoundaryServiceRequester.getLastBoundaries().isEmpty());
     }
 
+    @Test
+    public void testCgmesBoundaryRequesterCache() {
+        CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester = new CgmesBoundaryServiceRequester("http://localhost:55487/", 60000);
+
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", "{\"filename\":\"titi.xml\",\"id\":\"urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358\",\"boundary\":\"content1\"}", 200);
+        BoundaryInfo res = cgmesBoundaryServiceRequester.getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358");
+        assertEquals("content1", new String(res.getBoundary(), UTF_8));
+
+        // boundary is now served from the cache
+        mockServer.getClient().clear(request());
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", null, 500);
+        assertSame(res, cgmesBoundaryServiceRequester.getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358"));
+        assertEquals(1, cgmesBoundaryServiceRequester.getCacheHits());
+        assertEquals(1, cgmesBoundaryServiceRequester.getCacheMisses());
+
+        // boundaries not found are not cached
+        mockServer.getClient().clear(request());
+        expectRequestBoundary("/v1/boundaries/urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71", null, 500);
+        assertNull(cgmesBoundaryServiceRequester.getBoundary("urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71"));
+        expectRequestBoundary("/v1/boundaries/urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71", "{\"filename\":\"tutu.xml\",\"id\":\"urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71\",\"boundary\":\"content2\"}", 200);
+        assertEquals("content2", new String(cgmesBoundaryServiceRequester.getBoundary("urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71").getBoundary(), UTF_8));
+
+        // last boundaries are cached for their time to live, and share the boundaries cached by id
+        mockServer.getClient().clear(request());
+        expectRequestBoundary("/v1/boundaries/last", "[{\"filename\":\"titi.xml\",\"id\":\"urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358\",\"boundary\":\"content1\"},{\"filename\":\"tata.xml\",\"id\":\"urn:uuid:aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee\",\"boundary\":\"content3\"}]", 200);
+        List<BoundaryInfo> last = cgmesBoundaryServiceRequester.getLastBoundaries();
+        assertEquals(2, last.size());
+        assertSame(res, last.get(0));
+        mockServer.getClient().clear(request());
+        expectRequestBoundary("/v1/boundaries/last", "[]", 500);
+        assertSame(last, cgmesBoundaryServiceRequester.getLastBoundaries());
+        assertEquals(1, cgmesBoundaryServiceRequester.getLastBoundariesCacheHits());
+        assertEquals("content3", new String(cgmesBoundaryServiceRequester.getBoundary("urn:uuid:aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee").getBoundary(), UTF_8));
+
+        // shared boundaries content cannot be modified
+        res.getBoundary()[0] = 'X';
+        assertEquals("content1", new String(res.getBoundary(), UTF_8));
+        assertTrue(res.getBoundaryBuffer().isReadOnly());
+        assertEquals(8, res.getBoundaryBuffer().remaining());
+    }
+
+    @Test
+    public void testCgmesBoundaryRequesterCacheEviction() {
+        // cache only holds one of the 8 bytes boundaries
+        CgmesBoundaryServiceRequester cgmesBoundaryServiceRequester = new CgmesBoundaryServiceRequester("http://localhost:55487/", 0, null, 10);
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", "{\"filename\":\"titi.xml\",\"id\":\"urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358\",\"boundary\":\"content1\"}", 200);
+        expectRequestBoundary("/v1/boundaries/urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71", "{\"filename\":\"tutu.xml\",\"id\":\"urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71\",\"boundary\":\"content2\"}", 200);
+        BoundaryInfo first = cgmesBoundaryServiceRequester.getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358");
+        assertSame(first, cgmesBoundaryServiceRequester.getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358"));
+        assertEquals("content2", new String(cgmesBoundaryServiceRequester.getBoundary("urn:uuid:3e3f7738-aab9-4284-a965-71d5cd151f71").getBoundary(), UTF_8));
+        assertEquals(1, cgmesBoundaryServiceRequester.getCacheHits());
+        assertEquals(2, cgmesBoundaryServiceRequester.getCacheMisses());
+
+        // least recently used boundary is evicted, and downloaded again
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", "{\"filename\":\"titi.xml\",\"id\":\"urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358\",\"boundary\":\"content1\"}", 200);
+        BoundaryInfo downloadedAgain = cgmesBoundaryServiceRequester.getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358");
+        assertNotSame(first, downloadedAgain);
+        assertEquals("content1", new String(downloadedAgain.getBoundary(), UTF_8));
+        assertEquals(3, cgmesBoundaryServiceRequester.getCacheMisses());
+    }
+
+    @Test
+    public void testBoundaryStore() throws IOException {
+        Path storeDirectory = Files.createTempDirectory("boundary-store-test");
+        BoundaryStore store = new BoundaryStore(storeDirectory, 20);
+        store.put("id1", new BoundaryInfo("id1", "eqbd.xml", "boundary1".getBytes(UTF_8)));
+        store.put("id2", new BoundaryInfo("id2", "tpbd.xml", "boundary2".getBytes(UTF_8)));
+        // same content is stored once
+        store.put("id3", new BoundaryInfo("id3", "tpbd_copy.xml", "boundary2".getBytes(UTF_8)));
+        assertEquals(18, store.getSize());
+
+        // store is reloaded from its index
+        store = new BoundaryStore(storeDirectory, 20);
+        BoundaryInfo boundary = store.get("id1");
+        assertEquals("eqbd.xml", boundary.getFilename());
+        assertEquals("boundary1", new String(boundary.getBoundary(), UTF_8));
+        assertEquals("tpbd_copy.xml", store.get("id3").getFilename());
+
+        // least recently used boundary id2 is evicted first, but its content is still used by id3 so id1 is evicted too
+        store.put("id4", new BoundaryInfo("id4", "other.xml", "other".getBytes(UTF_8)));
+        assertFalse(store.contains("id2"));
+        assertFalse(store.contains("id1"));
+        assertEquals(14, store.getSize());
+        assertEquals("boundary2", new String(store.get("id3").getBoundary(), UTF_8));
+
+        // corrupted content is dropped
+        try (DirectoryStream<Path> contents = Files.newDirectoryStream(storeDirectory, "*")) {
+            for (Path content : contents) {
+                if (!content.getFileName().toString().equals("index.json")) {
+                    Files.writeString(content, "corrupted");
+                }
+            }
+        }
+        assertNull(store.get("id3"));
+        assertFalse(store.contains("id3"));
+
+        // access order is kept across runs
+        Path otherStoreDirectory = Files.createTempDirectory("boundary-store-test");
+        store = new BoundaryStore(otherStoreDirectory, 20);
+        store.put("id5", new BoundaryInfo("id5", "eqbd.xml", "boundary5".getBytes(UTF_8)));
+        store.put("id6", new BoundaryInfo("id6", "tpbd.xml", "boundary6".getBytes(UTF_8)));
+        assertNotNull(store.get("id5"));
+        store = new BoundaryStore(otherStoreDirectory, 20);
+        store.put("id7", new BoundaryInfo("id7", "other.xml", "other7".getBytes(UTF_8)));
+        assertTrue(store.contains("id5"));
+        assertFalse(store.contains("id6"));
+        assertTrue(store.contains("id7"));
+
+        // requester only downloads boundaries it has never seen
+        store = new BoundaryStore(storeDirectory, 1000);
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", "{\"filename\":\"titi.xml\",\"id\":\"urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358\",\"boundary\":\"content1\"}", 200);
+        assertNotNull(new CgmesBoundaryServiceRequester("http://localhost:55487/", 0, store).getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358"));
+        mockServer.getClient().clear(request());
+        expectRequestBoundary("/v1/boundaries/urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358", null, 500);
+        boundary = new CgmesBoundaryServiceRequester("http://localhost:55487/", 0, new BoundaryStore(storeDirectory, 1000))
+            .getBoundary("urn:uuid:f1582c44-d9e2-4ea0-afdc-dba189ab4358");
+        assertEquals("titi.xml", boundary.getFilename());
+        assertEquals("content1", new String(boundary.getBoundary(), UTF_8));
+    }
+
     @Test
     public void testGetValidProfileFileName() {
         Set<String> authorizedSourcingActors = new HashSet<>();
@@ -179,6 +736,144 @@ public class ProfilesAcquisitionJobTest {
         assertNull(CgmesUtils.getValidProfileFileName("20191106T0930Z_1D_XX_SSH_abc.zip", authorizedSourcingActors, authorizedBusinessProcesses));
     }
 
+    @Test
+    public void testCgmesFileName() {
+        CgmesFileName fileName = CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_012.zip");
+        assertNotNull(fileName);
+        assertEquals("20191106T0930Z_1D_XX_SSH_012.zip", fileName.getFileName());
+        assertEquals("20191106T0930Z", fileName.getEffectiveDateTime());
+        assertEquals("1D", fileName.getBusinessProcess());
+        assertEquals("XX", fileName.getSourcingActor());
+        assertEquals(CgmesFileName.SSH_MODEL_PART, fileName.getModelPart());
+        assertEquals(12, fileName.getVersion());
+        assertFalse(fileName.isSV());
+        assertTrue(CgmesFileName.parse("20191106T0930Z_1D_XX_SV_999.zip").isSV());
+        assertEquals("20191106T0930Z_1D_XX_999.zip", CgmesFileName.parse("20191106T0930Z_1D_XX_SV_999.zip").getAssembledFileName());
+
+        // EQ files may have no business process
+        fileName = CgmesFileName.parse("20191106T0930Z__XX_EQ_001.zip");
+        assertNotNull(fileName);
+        assertEquals("", fileName.getBusinessProcess());
+        assertTrue(fileName.isAuthorized(Set.of("XX"), Set.of("1D")));
+        assertFalse(CgmesFileName.parse("20191106T0930Z__XX_TP_001.zip").isAuthorized(Set.of("XX"), Set.of("1D")));
+        assertFalse(CgmesFileName.parse("20191106T0930Z_1D_YY_TP_001.zip").isAuthorized(Set.of("XX"), Set.of("1D")));
+
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_000.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_01.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_-01.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_001.xml"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX.SSH_001.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_001.zip.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_XX_SSH_001.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSHX_001.zip"));
+        assertNull(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_.zip"));
+        assertNull(CgmesFileName.parse(".zip"));
+        assertNull(CgmesFileName.parse(""));
+    }
+
+    @Test
+    public void testLatestVersionIndex() {
+        LatestVersionIndex index = new LatestVersionIndex();
+        CgmesFileName sv1 = CgmesFileName.parse("20191106T0930Z_1D_XX_SV_001.zip");
+        CgmesFileName sv3 = CgmesFileName.parse("20191106T0930Z_1D_XX_SV_003.zip");
+        CgmesFileName sv2 = CgmesFileName.parse("20191106T0930Z_1D_XX_SV_002.zip");
+        CgmesFileName ssh1 = CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_001.zip");
+        CgmesFileName otherSv1 = CgmesFileName.parse("20191106T1030Z_1D_XX_SV_001.zip");
+        CgmesFileName otherProcessSv1 = CgmesFileName.parse("20191106T0930Z_2D_XX_SV_001.zip");
+        for (CgmesFileName fileName : List.of(sv1, sv3, sv2, ssh1, otherSv1, otherProcessSv1)) {
+            index.add(fileName);
+        }
+
+        assertEquals(4, index.size());
+        assertEquals(2, index.getSupersededCount());
+        assertFalse(index.isLatest(sv1));
+        assertFalse(index.isLatest(sv2));
+        assertTrue(index.isLatest(sv3));
+        assertSame(sv3, index.getLatest(sv1));
+        assertTrue(index.isLatest(ssh1));
+        assertTrue(index.isLatest(otherSv1));
+        assertTrue(index.isLatest(otherProcessSv1));
+        assertFalse(index.isLatest(CgmesFileName.parse("20191106T0930Z_1D_XX_TP_001.zip")));
+
+        // superseded versions of the profiles of an SV file, its own older versions excepted
+        assertTrue(index.getSupersededProfiles(sv3).isEmpty());
+        index.add(CgmesFileName.parse("20191106T0930Z_1D_XX_SSH_002.zip"));
+        assertEquals(List.of("20191106T0930Z_1D_XX_SSH_001.zip"), index.getSupersededProfiles(sv3));
+        assertTrue(index.getSupersededProfiles(otherSv1).isEmpty());
+    }
+
+    // file name validation as it was done before the single pass parser
+    private static String getValidProfileFileNameWithSplit(String filename, Set<String> authorizedSourcingActors, Set<String> authorizedBusinessProcesses) {
+        if (filename.split("\\.").length == 2) {
+            String base = filename.split("\\.")[0];
+            String ext = filename.split("\\.")[1];
+            if (ext.equals("zip") && base.split("_").length == 5) {
+                String[] parts = base.split("_");
+                boolean validBusinessProcess = parts[1].isEmpty() ? parts[3].equals("EQ") : authorizedBusinessProcesses.contains(parts[1]);
+                if (Set.of("EQ", "SSH", "SV", "TP").contains(parts[3]) && validBusinessProcess && authorizedSourcingActors.contains(parts[2])) {
+                    try {
+                        int v = Integer.parseInt(parts[4]);
+                        return parts[4].length() == 3 && v > 0 && v < 1000 ? parts[3] : null;
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String[] generateProfileFileNames(int count) {
+        String[] modelParts = {"EQ", "SSH", "SV", "TP"};
+        String[] fileNames = new String[count];
+        for (int i = 0; i < fileNames.length; i++) {
+            fileNames[i] = String.format("2021%02d%02dT%02d30Z_%s_%s_%s_%03d.zip", 1 + i % 12, 1 + i % 28, i % 24,
+                i % 10 == 0 ? "" : "1D", i % 7 == 0 ? "ELIA" : "XX", modelParts[i % 4], i % 1000);
+        }
+        return fileNames;
+    }
+
+    @Test
+    public void testCgmesFileNameMatchesSplitValidation() {
+        Set<String> authorizedSourcingActors = Set.of("RTEFRANCE", "REE", "REN", "XX");
+        Set<String> authorizedBusinessProcesses = Set.of("1D", "2D", "RT", "YR");
+        for (String fileName : generateProfileFileNames(2000)) {
+            assertEquals(fileName, getValidProfileFileNameWithSplit(fileName, authorizedSourcingActors, authorizedBusinessProcesses),
+                CgmesUtils.getValidProfileFileName(fileName, authorizedSourcingActors, authorizedBusinessProcesses));
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void testCgmesFileNameParsingThroughput() {
+        Set<String> authorizedSourcingActors = Set.of("RTEFRANCE", "REE", "REN", "XX");
+        Set<String> authorizedBusinessProcesses = Set.of("1D", "2D", "RT", "YR");
+        String[] fileNames = generateProfileFileNames(1000000);
+
+        int splitValid = 0;
+        long splitStart = System.nanoTime();
+        for (String fileName : fileNames) {
+            if (getValidProfileFileNameWithSplit(fileName, authorizedSourcingActors, authorizedBusinessProcesses) != null) {
+                splitValid++;
+            }
+        }
+        long splitDuration = System.nanoTime() - splitStart;
+
+        int parsedValid = 0;
+        long parseStart = System.nanoTime();
+        for (String fileName : fileNames) {
+            CgmesFileName cgmesFileName = CgmesFileName.parse(fileName);
+            if (cgmesFileName != null && cgmesFileName.isAuthorized(authorizedSourcingActors, authorizedBusinessProcesses)) {
+                parsedValid++;
+            }
+        }
+        long parseDuration = System.nanoTime() - parseStart;
+
+        assertEquals(splitValid, parsedValid);
+        LOGGER.info("Validating {} file names: split {} ms, single pass parser {} ms", fileNames.length,
+            splitDuration / 1000000, parseDuration / 1000000);
+    }
+
     @Test(expected = RuntimeException.class)
     public void testLogDependencies() {
         try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
@@ -268,6 +963,7 @@ public class ProfilesAcquisitionJobTest {
             ProfilesAcquisitionJob.main(args);
             assertTrue(cgmesAssemblingLogger.isHandledFile("20191106T0930Z__XX_EQ_001.zip", "my_sftp_server"));
             assertFalse(cgmesAssemblingLogger.isImportedFile("20191106T0930Z_1D_XX_SV_001.zip", "my_sftp_server"));
+            assertTrue(cgmesAssemblingLogger.getPendingAssemblies("my_sftp_server").isPending("20191106T0930Z_1D_XX_SV_001.zip"));
 
             // One new file on SFTP server (TP), one case import requested
             //
@@ -284,6 +980,7 @@ public class ProfilesAcquisitionJobTest {
             ProfilesAcquisitionJob.main(args);
             assertTrue(cgmesAssemblingLogger.isHandledFile("20191106T0930Z_1D_XX_TP_001.zip", "my_sftp_server"));
             assertFalse(cgmesAssemblingLogger.isImportedFile("20191106T0930Z_1D_XX_SV_001.zip", "my_sftp_server"));
+            assertFalse(cgmesAssemblingLogger.getPendingAssemblies("my_sftp_server").isPending("20191106T0930Z_1D_XX_SV_001.zip"));
 
             // dependencies-strict-mode=true and not all referenced boundaries available
             mockServer.getClient().clear(request());
@@ -368,6 +1065,149 @@ public class ProfilesAcquisitionJobTest {
         }
     }
 
+    @Test
+    public void testAdaptivePollingInterval() {
+        AdaptivePollingInterval pollingInterval = new AdaptivePollingInterval(100, 1000);
+        assertEquals(100, pollingInterval.getInterval());
+        pollingInterval.update(0);
+        assertEquals(200, pollingInterval.getInterval());
+        pollingInterval.update(0);
+        pollingInterval.update(0);
+        assertEquals(800, pollingInterval.getInterval());
+        pollingInterval.update(0);
+        assertEquals(1000, pollingInterval.getInterval());
+        pollingInterval.update(3);
+        assertEquals(100, pollingInterval.getInterval());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollingInterval(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollingInterval(1000, 100));
+    }
+
+    private boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(100);
+        }
+        return true;
+    }
+
+    @Test
+    public void testDaemonMode() throws Exception {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        try (InputStream isSSH = getClass().getResourceAsStream("/20191106T0930Z_1D_XX_SSH_001.zip");
+             InputStream isSV = getClass().getResourceAsStream("/20191106T0930Z_1D_XX_SV_001.zip");
+             InputStream isEQ = getClass().getResourceAsStream("/20191106T0930Z__XX_EQ_001.zip")) {
+            SFTP_SERVER_RULE.putFile("/cases/20191106T0930Z_1D_XX_SSH_001.zip", isSSH.readAllBytes());
+            SFTP_SERVER_RULE.putFile("/cases/20191106T0930Z_1D_XX_SV_001.zip", isSV.readAllBytes());
+            SFTP_SERVER_RULE.putFile("/cases/20191106T0930Z__XX_EQ_001.zip", isEQ.readAllBytes());
+        }
+
+        String lastBoundary1Content = StringEscapeUtils.escapeJava(IOUtils.toString(getClass().getResourceAsStream("/last_eqbd.xml"), Charset.defaultCharset()));
+        String lastBoundary2Content = StringEscapeUtils.escapeJava(IOUtils.toString(getClass().getResourceAsStream("/last_tpbd.xml"), Charset.defaultCharset()));
+        // authorizations are loaded once, for all the passes
+        expectRequestTsos("/v1/tsos", "[\"XX\"]", 200);
+        expectRequestBusinessProcesses("/v1/business-processes", "[\"1D\"]", 200);
+        expectRequestBoundary("/v1/boundaries/last", "[{\"filename\":\"last_eqbd.xml\",\"id\":\"urn:uuid:11111111-2222-3333-4444-555555555555\",\"boundary\":\"" + lastBoundary1Content + "\"},{\"filename\":\"last_tpbd.xml\",\"id\":\"urn:uuid:aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee\",\"boundary\":\"" + lastBoundary2Content + "\"}]", 200);
+        expectRequestCase("/v1/cases/public", 200);
+
+        ProfilesAcquisitionJob job = new ProfilesAcquisitionJob(dataSource);
+        Thread daemon = new Thread(() -> job.handle(null, Boolean.TRUE));
+        daemon.start();
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            assertTrue(waitFor(() -> cgmesAssemblingLogger.isHandledFile("20191106T0930Z_1D_XX_SV_001.zip", "my_sftp_server")));
+            assertFalse(cgmesAssemblingLogger.isImportedFile("20191106T0930Z_1D_XX_SV_001.zip", "my_sftp_server"));
+
+            // the missing profile is picked up by a next pass of the same job
+            try (InputStream isTP = getClass().getResourceAsStream("/20191106T0930Z_1D_XX_TP_001.zip")) {
+                SFTP_SERVER_RULE.putFile("/cases/20191106T0930Z_1D_XX_TP_001.zip", isTP.readAllBytes());
+            }
+            assertTrue(waitFor(() -> cgmesAssemblingLogger.isImportedFile("20191106T0930Z_1D_XX_SV_001.zip", "my_sftp_server")));
+        } finally {
+            job.stop();
+            daemon.join(30000);
+        }
+        assertFalse(daemon.isAlive());
+    }
+
+    @Test
+    public void testAcquisitionSourceState() {
+        AcquisitionSource source = new AcquisitionSource("my_sftp_server", "/cases", null, 1);
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            cgmesAssemblingLogger.logFileHandled("EQ.zip", "uuidEQ", "my_sftp_server", new Date(), Collections.emptyList());
+            source.loadState(cgmesAssemblingLogger);
+            assertTrue(source.getHandledFiles().contains("EQ.zip"));
+            assertEquals("EQ.zip", source.getDependencyGraph().getFileName("uuidEQ"));
+            assertEquals(Long.MIN_VALUE, source.getListingWatermark().getLastModifiedTime());
+
+            // kept from one pass to the next, and only updated in place
+            cgmesAssemblingLogger.logFileHandled("TP.zip", "uuidTP", "my_sftp_server", new Date(), List.of("uuidEQ"));
+            FileNameSet handledFiles = source.getHandledFiles();
+            source.loadState(cgmesAssemblingLogger);
+            assertSame(handledFiles, source.getHandledFiles());
+            assertFalse(source.getHandledFiles().contains("TP.zip"));
+
+            // loaded again after a reset
+            source.resetState();
+            source.loadState(cgmesAssemblingLogger);
+            assertTrue(source.getHandledFiles().contains("TP.zip"));
+            assertEquals("TP.zip", source.getDependencyGraph().getFileName("uuidTP"));
+            assertNotNull(source.getListingWatermark());
+        } finally {
+            source.getHandlingExecutor().shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAcquisitionSourceStateAfterFailedFlush() {
+        AcquisitionSource source = new AcquisitionSource("my_sftp_server", "/cases", null, 1);
+        try (CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource, 100, 60000)) {
+            cgmesAssemblingLogger.logFileHandled("EQ.zip", "uuidEQ", "my_sftp_server", new Date(), Collections.emptyList());
+            source.loadState(cgmesAssemblingLogger);
+            FileNameSet handledFiles = source.getHandledFiles();
+
+            // a file handled by the source, then rolled back with the inserts of another source which fail
+            cgmesAssemblingLogger.logFileHandled("TP.zip", "uuidTP", "my_sftp_server", new Date(), List.of("uuidEQ"));
+            source.getHandledFiles().add("TP.zip");
+            cgmesAssemblingLogger.logFileHandled("SSH.zip", "uuidSSH", "other_server", new Date(), Collections.emptyList());
+            cgmesAssemblingLogger.logFileHandled("SSH.zip", "uuidSSH", "other_server", new Date(), Collections.emptyList());
+            assertThrows(RuntimeException.class, cgmesAssemblingLogger::flush);
+            assertEquals(1, cgmesAssemblingLogger.getRollbackCount());
+
+            // the source state is loaded again on its next pass
+            source.loadState(cgmesAssemblingLogger);
+            assertNotSame(handledFiles, source.getHandledFiles());
+            assertFalse(source.getHandledFiles().contains("TP.zip"));
+            assertTrue(source.getHandledFiles().contains("EQ.zip"));
+            handledFiles = source.getHandledFiles();
+            source.loadState(cgmesAssemblingLogger);
+            assertSame(handledFiles, source.getHandledFiles());
+        } finally {
+            source.getHandlingExecutor().shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAcquisitionSourcesConfigs() {
+        InMemoryModuleConfigRepository repository = new InMemoryModuleConfigRepository(FileSystems.getDefault());
+        MapModuleConfig moduleConfigAcquisitionServer = repository.createModuleConfig("acquisition-server");
+        moduleConfigAcquisitionServer.setStringProperty("label", "my_sftp_server");
+        PlatformConfig platformConfig = new PlatformConfig(repository, Paths.get("."));
+
+        // without sources list, the acquisition server is the single source
+        List<ModuleConfig> sourcesConfigs = ProfilesAcquisitionJob.getSourcesConfigs(platformConfig, moduleConfigAcquisitionServer);
+        assertEquals(1, sourcesConfigs.size());
+        assertSame(moduleConfigAcquisitionServer, sourcesConfigs.get(0));
+
+        moduleConfigAcquisitionServer.setStringListProperty("sources", List.of("primary", "backup"));
+        repository.createModuleConfig("acquisition-server-primary").setStringProperty("label", "primary_gateway");
+        assertThrows(PowsyblException.class, () -> ProfilesAcquisitionJob.getSourcesConfigs(platformConfig, moduleConfigAcquisitionServer));
+        repository.createModuleConfig("acquisition-server-backup").setStringProperty("label", "backup_sftp");
+        sourcesConfigs = ProfilesAcquisitionJob.getSourcesConfigs(platformConfig, moduleConfigAcquisitionServer);
+        assertEquals(List.of("primary_gateway", "backup_sftp"), sourcesConfigs.stream().map(c -> c.getStringProperty("label")).collect(Collectors.toList()));
+    }
+
     @Test
     public void mainAssemblingTest() throws IOException {
         SFTP_SERVER_RULE.createDirectory("/cases");
@@ -433,8 +1273,408 @@ public class ProfilesAcquisitionJobTest {
         }
     }
 
+    @Test
+    public void testListFilesAttributesLookups() throws IOException {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        int filesCount = 200;
+        for (int i = 0; i < filesCount; i++) {
+            SFTP_SERVER_RULE.putFile(String.format("/cases/20200817T1705Z_1D_RTEFRANCE-FR_SV_%03d.zip", i + 1), "fake file content " + i, UTF_8);
+        }
+        String acquisitionServerUrl = "sftp://localhost:2222";
+
+        // before: sorting the children with a comparator reading the attributes of both files on each comparison
+        StandardFileSystemManager fsManager = new StandardFileSystemManager();
+        FileSystemOptions fsOptions = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setUserAuthenticator(fsOptions, new StaticUserAuthenticator(null, "dummy", "dummy"));
+        SftpFileSystemConfigBuilder.getInstance().setUserDirIsRoot(fsOptions, true);
+        AtomicInteger comparatorLookups = new AtomicInteger();
+        AtomicInteger snapshotLookups = new AtomicInteger();
+        long comparatorDuration;
+        long snapshotDuration;
+        try {
+            fsManager.init();
+            long comparatorStart = System.nanoTime();
+            FileObject[] children = new CountingFileObject(fsManager.resolveFile(acquisitionServerUrl, fsOptions).resolveFile("./cases"), comparatorLookups).getChildren();
+            Arrays.sort(children, (fo1, fo2) -> {
+                try (FileContent fo1Content = fo1.getContent();
+                     FileContent fo2Content = fo2.getContent()) {
+                    return Long.compare(fo2Content.getLastModifiedTime(), fo1Content.getLastModifiedTime());
+                } catch (FileSystemException e) {
+                    return fo1.compareTo(fo2);
+                }
+            });
+            comparatorDuration = System.nanoTime() - comparatorStart;
+            assertEquals(filesCount, children.length);
+
+            // after: one attributes snapshot per child, sorted in memory, the lookups being counted through the listing
+            // of the acquisition server
+            long snapshotStart = System.nanoTime();
+            try (AcquisitionServer acquisitionServer = new AcquisitionServer(acquisitionServerUrl, "dummy", "dummy")) {
+                FileObject acquisitionDirectory = fsManager.resolveFile(acquisitionServerUrl, fsOptions).resolveFile("./cases");
+                acquisitionDirectory.refresh();
+                List<FileInfo> files = acquisitionServer.listFilesInfo(new CountingFileObject(acquisitionDirectory, snapshotLookups), null);
+                assertEquals(filesCount, files.size());
+                for (int i = 1; i < files.size(); i++) {
+                    assertTrue(files.get(i - 1).getLastModifiedTime() >= files.get(i).getLastModifiedTime());
+                }
+            }
+            snapshotDuration = System.nanoTime() - snapshotStart;
+        } finally {
+            fsManager.close();
+        }
+
+        LOGGER.info("Listing {} files: {} attributes lookups in {} ms with comparator, {} attributes lookups in {} ms with snapshot",
+            filesCount, comparatorLookups.get(), comparatorDuration / 1000000, snapshotLookups.get(), snapshotDuration / 1000000);
+        assertEquals(filesCount, snapshotLookups.get());
+        assertTrue(comparatorLookups.get() > filesCount);
+    }
+
+    /**
+     * File object counting the attributes lookups made on itself and on its children
+     */
+    private static final class CountingFileObject extends DecoratedFileObject {
+
+        private final AtomicInteger lookups;
+
+        private CountingFileObject(FileObject fileObject, AtomicInteger lookups) {
+            super(fileObject);
+            this.lookups = lookups;
+        }
+
+        @Override
+        public FileContent getContent() throws FileSystemException {
+            lookups.incrementAndGet();
+            return super.getContent();
+        }
+
+        @Override
+        public FileObject[] getChildren() throws FileSystemException {
+            FileObject[] children = super.getChildren();
+            FileObject[] countingChildren = new FileObject[children.length];
+            for (int i = 0; i < children.length; i++) {
+                countingChildren[i] = new CountingFileObject(children[i], lookups);
+            }
+            return countingChildren;
+        }
+    }
+
+    @Test
+    public void testIncrementalListing() throws IOException {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        SFTP_SERVER_RULE.putFile("/cases/case1.iidm", "fake file content 1", UTF_8);
+        SFTP_SERVER_RULE.putFile("/cases/case2.iidm", "fake file content 2", UTF_8);
+
+        try (AcquisitionServer acquisitionServer = new AcquisitionServer("sftp://localhost:2222", "dummy", "dummy");
+             CgmesAssemblingLogger cgmesAssemblingLogger = new CgmesAssemblingLogger(dataSource)) {
+            acquisitionServer.open();
+            ListingWatermark watermark = cgmesAssemblingLogger.getListingWatermark("my_sftp_server");
+            assertTrue(watermark.isFullScanNeeded(System.currentTimeMillis(), 3600000));
+
+            List<FileInfo> files = acquisitionServer.listFilesInfo("./cases", watermark);
+            assertEquals(2, files.size());
+            watermark.advance(files);
+            watermark.setFullScanTime(System.currentTimeMillis());
+            assertTrue(acquisitionServer.listFilesInfo("./cases", watermark).isEmpty());
+
+            // the watermark is persisted, and a new file is listed even with the same modification time as the last ones
+            cgmesAssemblingLogger.logListingWatermark("my_sftp_server", watermark);
+            watermark = cgmesAssemblingLogger.getListingWatermark("my_sftp_server");
+            assertFalse(watermark.isFullScanNeeded(System.currentTimeMillis(), 3600000));
+            assertTrue(acquisitionServer.listFilesInfo("./cases", watermark).isEmpty());
+            SFTP_SERVER_RULE.putFile("/cases/case3.iidm", "fake file content 3", UTF_8);
+            files = acquisitionServer.listFilesInfo("./cases", watermark);
+            assertEquals(1, files.size());
+            assertEquals("case3.iidm", files.get(0).getName());
+            assertEquals(files.get(0).getUrl(), acquisitionServer.getFileUrl("./cases", "case3.iidm"));
+            watermark.advance(files);
+            cgmesAssemblingLogger.logListingWatermark("my_sftp_server", watermark);
+            assertTrue(acquisitionServer.listFilesInfo("./cases", cgmesAssemblingLogger.getListingWatermark("my_sftp_server")).isEmpty());
+
+            // a full listing still returns all the files
+            assertEquals(3, acquisitionServer.listFilesInfo("./cases").size());
+        }
+
+        ListingWatermark watermark = new ListingWatermark(1000, List.of("a.zip"), 0);
+        assertFalse(watermark.isNew(new FileInfo("b.zip", "b.zip", 1, 999)));
+        assertFalse(watermark.isNew(new FileInfo("a.zip", "a.zip", 1, 1000)));
+        assertTrue(watermark.isNew(new FileInfo("b.zip", "b.zip", 1, 1000)));
+        assertTrue(watermark.isNew(new FileInfo("a.zip", "a.zip", 1, 1001)));
+        watermark.advance(List.of(new FileInfo("b.zip", "b.zip", 1, 1000), new FileInfo("c.zip", "c.zip", 1, 2000), new FileInfo("d.zip", "d.zip", 1, 1500)));
+        assertEquals(2000, watermark.getLastModifiedTime());
+        assertEquals(Set.of("c.zip"), watermark.getFileNames());
+
+        // the watermark stops before the oldest file to be listed again
+        watermark.advance(List.of(new FileInfo("e.zip", "e.zip", 1, 2500), new FileInfo("f.zip", "f.zip", 1, 3000),
+            new FileInfo("g.zip", "g.zip", 1, 3000), new FileInfo("h.zip", "h.zip", 1, 4000)), List.of("g.zip"));
+        assertEquals(2500, watermark.getLastModifiedTime());
+        assertEquals(Set.of("e.zip"), watermark.getFileNames());
+        watermark.advance(List.of(new FileInfo("f.zip", "f.zip", 1, 3000)), List.of());
+        assertEquals(3000, watermark.getLastModifiedTime());
+    }
+
+    @Test
+    public void testLocalAcquisitionServer() throws Exception {
+        Path rootDirectory = Files.createTempDirectory("local-acquisition-test");
+        Path casesDirectory = Files.createDirectory(rootDirectory.resolve("cases"));
+        byte[] svData;
+        try (InputStream isSV = getClass().getResourceAsStream("/20191106T0930Z_1D_XX_SV_001.zip")) {
+            svData = isSV.readAllBytes();
+        }
+        Files.write(casesDirectory.resolve("20191106T0930Z_1D_XX_SV_001.zip"), svData);
+        Files.createDirectory(casesDirectory.resolve("subdirectory"));
+
+        try (LocalAcquisitionServer acquisitionServer = new LocalAcquisitionServer(rootDirectory)) {
+            acquisitionServer.open();
+            List<FileInfo> files = acquisitionServer.listFilesInfo("./cases");
+            assertEquals(1, files.size());
+            FileInfo svInfo = files.get(0);
+            assertEquals("20191106T0930Z_1D_XX_SV_001.zip", svInfo.getName());
+            assertEquals(svData.length, svInfo.getSize());
+            assertSame(svInfo, acquisitionServer.getListedFileInfo(svInfo.getUrl()));
+            assertEquals(svInfo.getUrl(), acquisitionServer.getFileUrl("./cases", "20191106T0930Z_1D_XX_SV_001.zip"));
+
+            // header probed from the file channel, and content copied
+            assertEquals(CgmesUtils.parseFullModel(new ByteArrayInputStream(svData)).getId(), acquisitionServer.getFullModel(svInfo.getUrl()).getId());
+            try (TransferableFile file = acquisitionServer.getFile(svInfo.getName(), svInfo.getUrl());
+                 InputStream is = file.getInputStream()) {
+                assertArrayEquals(svData, is.readAllBytes());
+            }
+
+            // a file rewritten since it was listed is not read
+            Files.setLastModifiedTime(casesDirectory.resolve("20191106T0930Z_1D_XX_SV_001.zip"), FileTime.fromMillis(svInfo.getLastModifiedTime() - 120000));
+            assertThrows(IOException.class, () -> acquisitionServer.getFile(svInfo.getName(), svInfo.getUrl()));
+
+            // new files are notified
+            assertFalse(acquisitionServer.awaitChanges("./cases", 100));
+            Files.write(casesDirectory.resolve("20191106T0930Z_1D_XX_SSH_001.zip"), svData);
+            assertTrue(acquisitionServer.awaitChanges("./cases", 10000));
+            assertEquals(2, acquisitionServer.listFiles("./cases").size());
+        }
+
+        // files modified within the settle delay are not listed yet
+        try (LocalAcquisitionServer acquisitionServer = new LocalAcquisitionServer(rootDirectory, 60000, null, AcquisitionServer.DEFAULT_MEMORY_THRESHOLD)) {
+            acquisitionServer.open();
+            assertEquals(Set.of("20191106T0930Z_1D_XX_SV_001.zip"), acquisitionServer.listFiles("./cases").keySet());
+        } finally {
+            try (Stream<Path> paths = Files.walk(rootDirectory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testFileContentCache() throws IOException {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        SFTP_SERVER_RULE.putFile("/cases/case1.iidm", "fake file content 1", UTF_8);
+        SFTP_SERVER_RULE.putFile("/cases/case2.iidm", "fake file content 2", UTF_8);
+
+        String acquisitionServerUrl = "sftp://localhost:2222";
+        try (FileContentCache cache = new FileContentCache(Files.createTempDirectory("cache-test"), 25);
+             AcquisitionServer acquisitionServer = new AcquisitionServer(acquisitionServerUrl, "dummy", "dummy", cache)) {
+            acquisitionServer.open();
+            Map<String, String> retrievedFiles = acquisitionServer.listFiles("./cases");
+            assertEquals(2, retrievedFiles.size());
+
+            assertEquals("fake file content 1", new String(acquisitionServer.getFile("case1.iidm", retrievedFiles.get("case1.iidm")).getData(), UTF_8));
+            assertEquals("fake file content 1", new String(acquisitionServer.getFile("case1.iidm", retrievedFiles.get("case1.iidm")).getData(), UTF_8));
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+
+            // cache can only hold one file: case1 is evicted
+            assertEquals("fake file content 2", new String(acquisitionServer.getFile("case2.iidm", retrievedFiles.get("case2.iidm")).getData(), UTF_8));
+            assertEquals(1, cache.getEvictions());
+            assertEquals("fake file content 1", new String(acquisitionServer.getFile("case1.iidm", retrievedFiles.get("case1.iidm")).getData(), UTF_8));
+            assertEquals(1, cache.getHits());
+            assertEquals(3, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testTransferableFileSpilling() throws IOException {
+        byte[] data = "fake file content".getBytes(UTF_8);
+        try (TransferableFile file = TransferableFile.read("case.iidm", new ByteArrayInputStream(data), 1024)) {
+            assertEquals(data.length, file.getSize());
+            assertArrayEquals(data, file.getData());
+        }
+
+        // content bigger than memory threshold is spilled to a temporary file
+        try (TransferableFile spilledFile = TransferableFile.read("case.iidm", new ByteArrayInputStream(data), 4);
+             InputStream is = spilledFile.getInputStream()) {
+            assertEquals(data.length, spilledFile.getSize());
+            assertArrayEquals(data, is.readAllBytes());
+        }
+
+        Path mappedPath = Files.createTempFile("mapped", ".iidm");
+        Files.write(mappedPath, data);
+        TransferableFile mappedFile = TransferableFile.ofMappedPath("case.iidm", mappedPath);
+        Files.delete(mappedPath);
+        assertEquals(data.length, mappedFile.getSize());
+        assertArrayEquals(data, mappedFile.getData());
+    }
+
+    @Test
+    public void testConcurrentAcquisition() throws Exception {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        int filesCount = 12;
+        for (int i = 0; i < filesCount; i++) {
+            SFTP_SERVER_RULE.putFile("/cases/case" + i + ".iidm", "fake file content " + i, UTF_8);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (AcquisitionServer acquisitionServer = new AcquisitionServer("sftp://localhost:2222", "dummy", "dummy", 3, null, AcquisitionServer.DEFAULT_MEMORY_THRESHOLD)) {
+            acquisitionServer.open();
+            Map<String, String> retrievedFiles = acquisitionServer.listFiles("./cases");
+            assertEquals(filesCount, retrievedFiles.size());
+
+            Map<String, Future<String>> contents = new HashMap<>();
+            retrievedFiles.forEach((name, url) -> contents.put(name, executor.submit(() -> {
+                try (TransferableFile file = acquisitionServer.getFile(name, url)) {
+                    return new String(file.getData(), UTF_8);
+                }
+            })));
+            for (int i = 0; i < filesCount; i++) {
+                assertEquals("fake file content " + i, contents.get("case" + i + ".iidm").get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] generateProfile() {
+        StringBuilder profile = new StringBuilder();
+        Random random = new Random(0);
+        for (int i = 0; i < 200000; i++) {
+            profile.append("<cim:Terminal rdf:ID=\"_").append(random.nextInt()).append("\"/>\n");
+        }
+        return profile.toString().getBytes(UTF_8);
+    }
+
+    private static byte[] zipProfile(byte[] profileData) throws IOException {
+        ByteArrayOutputStream zippedProfile = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zippedProfile)) {
+            zos.putNextEntry(new ZipEntry("profile.xml"));
+            zos.write(profileData);
+            zos.closeEntry();
+        }
+        return zippedProfile.toByteArray();
+    }
+
+    @Test
+    public void testRawZipEntryCopy() throws IOException {
+        byte[] profileData = generateProfile();
+        byte[] zippedProfile = zipProfile(profileData);
+        CRC32 crc = new CRC32();
+        crc.update(profileData);
+        long sourceCompressedSize;
+        try (ZipFile sourceZipFile = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(zippedProfile)).get()) {
+            sourceCompressedSize = sourceZipFile.getEntry("profile.xml").getCompressedSize();
+        }
+
+        // boundaries are deflated, and the profile compressed data, CRC and sizes are copied as is, from any file content
+        for (TransferableFile profileFile : List.of(new TransferableFile("profile.zip", zippedProfile),
+            TransferableFile.ofMappedPath("profile.zip", Files.write(Files.createTempFile("profile", ".zip"), zippedProfile)))) {
+            ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+            try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(assembled)) {
+                zipOutputStream.putArchiveEntry(new ZipArchiveEntry("boundary.xml"));
+                zipOutputStream.write("boundary content".getBytes(UTF_8));
+                zipOutputStream.closeArchiveEntry();
+                CgmesUtils.addProfileEntry(zipOutputStream, "assembled.xml", profileFile);
+            }
+            try (ZipFile zipFile = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(assembled.toByteArray())).get()) {
+                ZipArchiveEntry copiedEntry = zipFile.getEntry("assembled.xml");
+                assertEquals(crc.getValue(), copiedEntry.getCrc());
+                assertEquals(profileData.length, copiedEntry.getSize());
+                assertEquals(sourceCompressedSize, copiedEntry.getCompressedSize());
+                try (InputStream is = zipFile.getInputStream(copiedEntry)) {
+                    assertArrayEquals(profileData, is.readAllBytes());
+                }
+            }
+            // the CRC of the copied data is checked again while reading the archive as a stream
+            try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(assembled.toByteArray()))) {
+                assertEquals("boundary.xml", zis.getNextEntry().getName());
+                assertEquals("boundary content", new String(zis.readAllBytes(), UTF_8));
+                assertEquals("assembled.xml", zis.getNextEntry().getName());
+                assertArrayEquals(profileData, zis.readAllBytes());
+                assertNull(zis.getNextEntry());
+            }
+        }
+
+        // a profile without central directory is inflated and deflated again
+        byte[] truncatedProfile = Arrays.copyOf(zippedProfile, zippedProfile.length - 22);
+        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(assembled)) {
+            CgmesUtils.addProfileEntry(zipOutputStream, "assembled.xml", new TransferableFile("profile.zip", truncatedProfile));
+        }
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(assembled.toByteArray()))) {
+            assertEquals("assembled.xml", zis.getNextEntry().getName());
+            assertArrayEquals(profileData, zis.readAllBytes());
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void testRawZipEntryCopyThroughput() throws IOException {
+        byte[] profileData = generateProfile();
+        TransferableFile profileFile = new TransferableFile("profile.zip", zipProfile(profileData));
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        int iterations = 5;
+
+        // profile inflated and deflated again
+        ByteArrayOutputStream recompressed = new ByteArrayOutputStream();
+        long recompressCpuStart = threadMXBean.getCurrentThreadCpuTime();
+        long recompressStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            recompressed.reset();
+            try (ZipOutputStream zos = new ZipOutputStream(recompressed);
+                 InputStream is = CgmesUtils.getZipInputStream(profileFile.getInputStream())) {
+                zos.putNextEntry(new ZipEntry("assembled.xml"));
+                is.transferTo(zos);
+                zos.closeEntry();
+            }
+        }
+        long recompressCpu = threadMXBean.getCurrentThreadCpuTime() - recompressCpuStart;
+        long recompressDuration = System.nanoTime() - recompressStart;
+
+        // compressed data copied as is
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        long copyCpuStart = threadMXBean.getCurrentThreadCpuTime();
+        long copyStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            copied.reset();
+            try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(copied)) {
+                CgmesUtils.addProfileEntry(zipOutputStream, "assembled.xml", profileFile);
+            }
+        }
+        long copyCpu = threadMXBean.getCurrentThreadCpuTime() - copyCpuStart;
+        long copyDuration = System.nanoTime() - copyStart;
+
+        LOGGER.info("Assembling a {} bytes profile {} times: recompression {} ms CPU, {} MB/s, raw copy {} ms CPU, {} MB/s",
+            profileData.length, iterations, recompressCpu / 1000000, (long) profileData.length * iterations * 1000 / Math.max(1, recompressDuration),
+            copyCpu / 1000000, (long) profileData.length * iterations * 1000 / Math.max(1, copyDuration));
+    }
+
+    @Test
+    public void testFullModelHeaderProbe() throws IOException {
+        SFTP_SERVER_RULE.createDirectory("/cases");
+        try (InputStream isEQ = getClass().getResourceAsStream("/20191106T0930Z__XX_EQ_001.zip")) {
+            SFTP_SERVER_RULE.putFile("/cases/20191106T0930Z__XX_EQ_001.zip", isEQ.readAllBytes());
+        }
+
+        String fileUrl = "sftp://localhost:2222/cases/20191106T0930Z__XX_EQ_001.zip";
+        try (AcquisitionServer acquisitionServer = new AcquisitionServer("sftp://localhost:2222", "dummy", "dummy")) {
+            acquisitionServer.open();
+            FullModel probedFullModel = acquisitionServer.getFullModel(fileUrl);
+            try (TransferableFile file = acquisitionServer.getFile("20191106T0930Z__XX_EQ_001.zip", fileUrl);
+                 InputStream is = file.getInputStream()) {
+                FullModel fullModel = CgmesUtils.parseFullModel(is);
+                assertEquals(fullModel.getId(), probedFullModel.getId());
+                assertEquals(fullModel.getDependentOn(), probedFullModel.getDependentOn());
+            }
+        }
+    }
+
     private void truncate() {
-        List<String> tables = List.of("handled_files", "imported_files", "handled_files_dependencies");
+        List<String> tables = List.of("handled_files", "imported_files", "handled_files_dependencies", "pending_assemblies", "listing_watermarks", "listing_watermark_files");
         tables.forEach(table -> truncate(table));
     }
 